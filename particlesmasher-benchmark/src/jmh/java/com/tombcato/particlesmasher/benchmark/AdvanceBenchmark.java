@@ -0,0 +1,62 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 逐帧推进（含包围盒与可见数累计）
+ *              每次调用推进一帧，动画值在整段动画内循环，覆盖起跑、运动和淡出各阶段。
+ *              advanceProcedural 为程序化模式：粒子只保存颜色与网格编号，参数逐帧由哈希重新计算
+ *     version: 1.0
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AdvanceBenchmark {
+
+    /** 每段动画的帧数（约 1 秒 @60fps） */
+    private static final int FRAMES = 64;
+
+    @Param({"EXPLOSION", "DROP", "FLOAT", "RISE"})
+    public String style;
+
+    @Param({"1000", "10000", "50000", "200000"})
+    public int count;
+
+    private ParticleBuffer mBuffer;
+    private ParticleBuffer mProcedural;
+    private int mFrame;
+
+    @Setup
+    public void setUp() {
+        mBuffer = ParticleFixtures.buffer(style, count, 42);
+        mProcedural = ParticleFixtures.proceduralBuffer(style, count, 42);
+    }
+
+    @Benchmark
+    public float advance() {
+        float factor = ParticleFixtures.END_VALUE * (mFrame++ % FRAMES) / (FRAMES - 1);
+        mBuffer.advance(factor, ParticleFixtures.END_VALUE);
+        return mBuffer.boundsRight;
+    }
+
+    @Benchmark
+    public float advanceProcedural() {
+        float factor = ParticleFixtures.END_VALUE * (mFrame++ % FRAMES) / (FRAMES - 1);
+        mProcedural.advance(factor, ParticleFixtures.END_VALUE);
+        return mProcedural.boundsRight;
+    }
+}
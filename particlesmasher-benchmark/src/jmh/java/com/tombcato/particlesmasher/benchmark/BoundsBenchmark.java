@@ -0,0 +1,76 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 包围盒计算
+ *              advance 在推进时顺带累计包围盒；scan 是绘制前单独遍历一遍粒子的做法，作为对照。
+ *              粒子状态固定在动画中段，两者只比较包围盒本身的开销
+ *     version: 1.0
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BoundsBenchmark {
+
+    @Param({"1000", "10000", "50000", "200000"})
+    public int count;
+
+    private ParticleBuffer mBuffer;
+
+    @Setup
+    public void setUp() {
+        mBuffer = ParticleFixtures.buffer("EXPLOSION", count, 42);
+        mBuffer.advance(ParticleFixtures.END_VALUE * 0.5f, ParticleFixtures.END_VALUE);
+    }
+
+    /**
+     * 单独遍历可见粒子计算包围盒
+     */
+    @Benchmark
+    public float scan() {
+        final ParticleBuffer buffer = mBuffer;
+        final float[] alphas = buffer.alpha;
+        final float[] xs = buffer.cx;
+        final float[] ys = buffer.cy;
+        final float[] radii = buffer.radius;
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        for (int i = 0, n = buffer.count; i < n; i++) {
+            float r = radii[i];
+            if (alphas[i] <= 0 || r <= 0) {
+                continue;
+            }
+            left = Math.min(left, xs[i] - r);
+            top = Math.min(top, ys[i] - r);
+            right = Math.max(right, xs[i] + r);
+            bottom = Math.max(bottom, ys[i] + r);
+        }
+        return left + top + right + bottom;
+    }
+
+    /**
+     * 推进一帧，包围盒在同一循环中累计
+     */
+    @Benchmark
+    public float advance() {
+        mBuffer.advance(ParticleFixtures.END_VALUE * 0.5f, ParticleFixtures.END_VALUE);
+        return mBuffer.boundsLeft + mBuffer.boundsTop + mBuffer.boundsRight + mBuffer.boundsBottom;
+    }
+}
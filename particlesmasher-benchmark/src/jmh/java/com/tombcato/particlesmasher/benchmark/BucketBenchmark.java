@@ -0,0 +1,55 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.ParticleBuckets;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 批量绘制的分桶（RENDER_BATCHED 每帧在 drawPoints 之前的 CPU 开销）
+ *     version: 1.0
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BucketBenchmark {
+
+    @Param({"1000", "10000", "50000", "200000"})
+    public int count;
+
+    /** 粒子步长，2 对应画质等级中的“隔一绘制” */
+    @Param({"1", "2"})
+    public int stride;
+
+    private ParticleBuffer mBuffer;
+    private final ParticleBuckets mBuckets = new ParticleBuckets();
+
+    @Setup
+    public void setUp() {
+        mBuffer = ParticleFixtures.buffer("EXPLOSION", count, 42);
+        mBuffer.advance(ParticleFixtures.END_VALUE * 0.5f, ParticleFixtures.END_VALUE);
+        mBuckets.prepare(mBuffer);
+    }
+
+    @Benchmark
+    public int bucket() {
+        return mBuckets.bucket(mBuffer, stride);
+    }
+
+    @Benchmark
+    public void prepare() {
+        mBuckets.prepare(mBuffer);
+    }
+}
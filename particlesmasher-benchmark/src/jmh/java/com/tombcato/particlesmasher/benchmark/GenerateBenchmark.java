@@ -0,0 +1,73 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.Particle;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+import com.tombcato.particlesmasher.particle.ParticleGenerator;
+import com.tombcato.particlesmasher.particle.ParticleRandom;
+import com.tombcato.particlesmasher.particle.RiseParticle;
+import com.tombcato.particlesmasher.particle.SummedAreaTable;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 按采样网格从像素生成粒子，并烘焙曲线表
+ *              对应 SmashAnimator 后台线程的生成耗时（不含截图与 Bitmap.getPixels）；
+ *              generateArea 为 SAMPLE_AREA：先构建积分图，再按网格平均色生成
+ *     version: 1.0
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class GenerateBenchmark {
+
+    @Param({"EXPLOSION", "DROP", "FLOAT", "RISE"})
+    public String style;
+
+    @Param({"1000", "10000", "50000", "200000"})
+    public int count;
+
+    private ParticleFixtures.Snapshot mSnapshot;
+    private ParticleBuffer mBuffer;
+    private ParticleRandom mRandom;
+    private int mKind;
+    private final SummedAreaTable mTable = new SummedAreaTable();
+
+    @Setup
+    public void setUp() {
+        mSnapshot = ParticleFixtures.snapshot(count, 42);
+        mBuffer = new ParticleBuffer(count);
+        mRandom = new ParticleRandom(42);
+        mKind = ParticleFixtures.kind(style);
+    }
+
+    @Benchmark
+    public int generate() {
+        int generated = ParticleFixtures.generate(mBuffer, mSnapshot, mKind, mRandom);
+        mBuffer.bake(ParticleFixtures.END_VALUE);
+        return generated;
+    }
+
+    @Benchmark
+    public int generateArea() {
+        final ParticleFixtures.Snapshot snapshot = mSnapshot;
+        mTable.build(snapshot.pixels, 0, snapshot.size, snapshot.size, snapshot.size, snapshot.grid.cellPixels);
+        mBuffer.reset(snapshot.grid.count, mKind, RiseParticle.DIRECTION_ALL, Particle.ScaleMode.SCALE_DOWN);
+        int generated = ParticleGenerator.generate(mBuffer, mTable, snapshot.grid, snapshot.rect,
+                ParticleFixtures.END_VALUE, mRandom, ParticleFixtures.HORIZONTAL_MULTIPLE,
+                ParticleFixtures.VERTICAL_MULTIPLE, ParticleFixtures.START_RANDOMNESS, ParticleFixtures.END_RANDOMNESS);
+        mBuffer.bake(ParticleFixtures.END_VALUE);
+        return generated;
+    }
+}
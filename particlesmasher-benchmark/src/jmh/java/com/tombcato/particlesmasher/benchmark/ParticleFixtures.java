@@ -0,0 +1,111 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.Particle;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+import com.tombcato.particlesmasher.particle.ParticleGenerator;
+import com.tombcato.particlesmasher.particle.ParticleRandom;
+import com.tombcato.particlesmasher.particle.ParticleRect;
+import com.tombcato.particlesmasher.particle.RiseParticle;
+import com.tombcato.particlesmasher.particle.SamplingGrid;
+
+import java.util.Random;
+
+/**
+ * <pre>
+ *     desc   : 基准测试数据
+ *              用固定种子生成的随机像素构造截图与采样网格，参数与 SmashAnimator 的默认值一致
+ *     version: 1.0
+ * </pre>
+ */
+
+final class ParticleFixtures {
+
+    static final float END_VALUE = 1.5f;
+    static final float HORIZONTAL_MULTIPLE = 3;
+    static final float VERTICAL_MULTIPLE = 4;
+    static final float START_RANDOMNESS = 0.1f;
+    static final float END_RANDOMNESS = 0.4f;
+
+    /** 网格间距与粒子半径（SmashAnimator 默认） */
+    static final int STEP = 4;
+    static final int RADIUS = 2;
+
+    private ParticleFixtures() {
+    }
+
+    /**
+     * 样式名 -> 粒子类型
+     */
+    static int kind(String style) {
+        switch (style) {
+            case "DROP":
+                return ParticleBuffer.KIND_DROP;
+            case "FLOAT":
+                return ParticleBuffer.KIND_FLOAT;
+            case "RISE":
+                return ParticleBuffer.KIND_RISE;
+            case "EXPLOSION":
+            default:
+                return ParticleBuffer.KIND_EXPLOSION;
+        }
+    }
+
+    /**
+     * 能容纳 count 个粒子的正方形截图
+     */
+    static Snapshot snapshot(int count, long seed) {
+        int side = (int) Math.ceil(Math.sqrt(count));
+        int size = side * STEP;
+        int[] pixels = new int[size * size];
+        Random random = new Random(seed);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | random.nextInt(0x1000000);
+        }
+        return new Snapshot(pixels, size, new SamplingGrid(size, size, STEP, RADIUS, STEP, count));
+    }
+
+    /**
+     * 生成并烘焙好的粒子缓冲区
+     */
+    static ParticleBuffer buffer(String style, int count, long seed) {
+        Snapshot snapshot = snapshot(count, seed);
+        ParticleBuffer buffer = new ParticleBuffer(count);
+        generate(buffer, snapshot, kind(style), new ParticleRandom(seed));
+        buffer.bake(END_VALUE);
+        return buffer;
+    }
+
+    /**
+     * 生成并烘焙好的程序化粒子缓冲区（只保存颜色与网格编号）
+     */
+    static ParticleBuffer proceduralBuffer(String style, int count, long seed) {
+        Snapshot snapshot = snapshot(count, seed);
+        ParticleBuffer buffer = new ParticleBuffer(count, true);
+        buffer.resetProcedural(snapshot.grid.count, kind(style), RiseParticle.DIRECTION_ALL, Particle.ScaleMode.SCALE_DOWN);
+        ParticleGenerator.generate(buffer, snapshot.pixels, snapshot.size, snapshot.size, snapshot.grid,
+                snapshot.rect, END_VALUE, new ParticleRandom(seed), HORIZONTAL_MULTIPLE, VERTICAL_MULTIPLE,
+                START_RANDOMNESS, END_RANDOMNESS);
+        buffer.bake(END_VALUE);
+        return buffer;
+    }
+
+    static int generate(ParticleBuffer buffer, Snapshot snapshot, int kind, ParticleRandom random) {
+        buffer.reset(snapshot.grid.count, kind, RiseParticle.DIRECTION_ALL, Particle.ScaleMode.SCALE_DOWN);
+        return ParticleGenerator.generate(buffer, snapshot.pixels, snapshot.size, snapshot.size, snapshot.grid,
+                snapshot.rect, END_VALUE, random, HORIZONTAL_MULTIPLE, VERTICAL_MULTIPLE, START_RANDOMNESS, END_RANDOMNESS);
+    }
+
+    static final class Snapshot {
+        final int[] pixels;
+        final int size;
+        final SamplingGrid grid;
+        final ParticleRect rect;
+
+        Snapshot(int[] pixels, int size, SamplingGrid grid) {
+            this.pixels = pixels;
+            this.size = size;
+            this.grid = grid;
+            this.rect = new ParticleRect(0, 0, size, size);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.tombcato.particlesmasher.benchmark;
+
+import com.tombcato.particlesmasher.particle.IdentityRegistry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 动画登记表：count 个动画同时进行时，单次操作的耗时
+ *              registry* 为 IdentityRegistry（ParticleSmasher 现在的做法），cow* 为按 View 线性查找的
+ *              CopyOnWriteArrayList，作为对照。key 以普通对象代替 View，按轮转顺序操作不同的 key
+ *     version: 1.0
+ * </pre>
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RegistryBenchmark {
+
+    @Param({"10", "100", "1000", "5000"})
+    public int count;
+
+    private Object[] mViews;
+    private Entry[] mEntries;
+    private Entry[] mSnapshot;
+    private IdentityRegistry<Object, Entry> mRegistry;
+    private List<Entry> mList;
+    private int mNext;
+
+    /** 代替 SmashAnimator，持有自己的 View */
+    private static final class Entry {
+        final Object view;
+
+        Entry(Object view) {
+            this.view = view;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        mViews = new Object[count];
+        mEntries = new Entry[count];
+        mSnapshot = new Entry[count];
+        mRegistry = new IdentityRegistry<>();
+        mList = new CopyOnWriteArrayList<>();
+        for (int i = 0; i < count; i++) {
+            mViews[i] = new Object();
+            mEntries[i] = new Entry(mViews[i]);
+            mRegistry.put(mViews[i], mEntries[i]);
+            mList.add(mEntries[i]);
+        }
+    }
+
+    private int next() {
+        int index = mNext;
+        mNext = index + 1 == count ? 0 : index + 1;
+        return index;
+    }
+
+    /**
+     * 结束一个动画后再次粉碎同一个 View（removeAnimator + with）
+     */
+    @Benchmark
+    public Object registryRestart() {
+        int index = next();
+        mRegistry.remove(mViews[index], mEntries[index]);
+        return mRegistry.put(mViews[index], mEntries[index]);
+    }
+
+    @Benchmark
+    public Object cowRestart() {
+        int index = next();
+        mList.remove(mEntries[index]);
+        mList.add(mEntries[index]);
+        return mList;
+    }
+
+    /**
+     * isAnimating(view)
+     */
+    @Benchmark
+    public boolean registryLookup() {
+        return mRegistry.containsKey(mViews[next()]);
+    }
+
+    @Benchmark
+    public boolean cowLookup() {
+        Object view = mViews[next()];
+        for (Entry entry : mList) {
+            if (entry.view == view) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 逐帧遍历：拷贝全部动画到复用数组（与帧内推进动画的开销同为 O(count)）
+     */
+    @Benchmark
+    public Entry registrySnapshot() {
+        int n = mRegistry.copyValues(mSnapshot);
+        return mSnapshot[n - 1];
+    }
+
+    @Benchmark
+    public Entry cowSnapshot() {
+        Entry last = null;
+        for (Entry entry : mList) {
+            last = entry;
+        }
+        return last;
+    }
+}
@@ -0,0 +1,190 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.Random;
+
+/**
+ * <pre>
+ *     author : FaDai
+ *     e-mail : i_fadai@163.com
+ *     time   : 2017/12/20
+ *     desc   : 下落粒子
+ *     version: 2.0
+ * </pre>
+ */
+
+public class DropParticle extends Particle {
+
+    /**
+     * 生成粒子
+     * @param x                  粒子在图片中原始位置 x
+     * @param y                  粒子在图片中原始位置 y
+     * @param color              粒子颜色
+     * @param radius             粒子的半径
+     * @param rect               View区域的矩形
+     * @param endValue           动画的结束值
+     * @param random             随机数
+     * @param horizontalMultiple 水平变化幅度
+     * @param verticalMultiple   垂直变化幅度
+     * @param startRandomness    起跑随机延迟系数
+     * @param endRandomness      结束随机提前系数
+     * @param scaleMode          缩放模式
+     */
+    public DropParticle(int x, int y, int color, int radius, ParticleRect rect, float endValue, Random random, 
+                        float horizontalMultiple, float verticalMultiple, 
+                        float startRandomness, float endRandomness, ScaleMode scaleMode) {
+        
+        this.color = color;
+        this.baseAlpha = color >>> 24;
+        this.scaleMode = scaleMode;
+        alpha = 1;
+
+        float nextFloat = random.nextFloat();
+
+        // 下落和飘落的粒子，其半径很大概率大于初始设定的半径
+        baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.4f, 1.6f);
+        this.radius = baseRadius;
+
+        horizontalElement = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple);
+        verticalElement = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        baseCx = x;
+        baseCy = y;
+        cx = baseCx;
+        cy = baseCy;
+
+        startOffset = endValue * startRandomness * random.nextFloat();
+        endFadeOffset = endRandomness * random.nextFloat();
+    }
+
+    @Override
+    public void advance(float factor, float endValue) {
+        float normalization = factor / endValue;
+
+        if (normalization < startOffset) {
+            alpha = 1;
+            return;
+        }
+        if (normalization > 1f - endFadeOffset) {
+            alpha = 0;
+            return;
+        }
+        alpha = 1;
+
+        normalization = (normalization - startOffset) / (1f - startOffset - endFadeOffset);
+        alpha = calculateFadeAlpha(normalization, FADE_START_THRESHOLD, FADE_DURATION_RATIO);
+
+        float realValue = normalization * endValue;
+
+        cx = baseCx + horizontalElement * realValue;
+        cy = baseCy + verticalElement * realValue;
+
+        radius = calculateRadius(baseRadius, normalization, scaleMode, 1f / 6f);
+    }
+
+    // ==================== ParticleBuffer 版本 ====================
+
+    /**
+     * 在缓冲区的 index 位置生成粒子，随机数消耗顺序与构造函数一致
+     * @param x 粒子原始位置 x
+     * @param y 粒子原始位置 y
+     * 其余参数含义同构造函数
+     */
+    public static void generate(ParticleBuffer buffer, int index, int x, int y, int color, int radius, ParticleRect rect,
+                                float endValue, ParticleRandom random, float horizontalMultiple, float verticalMultiple,
+                                float startRandomness, float endRandomness) {
+        buffer.color[index] = color;
+        buffer.alpha[index] = 1;
+
+        float nextFloat = random.nextFloat();
+
+        // 下落和飘落的粒子，其半径很大概率大于初始设定的半径
+        float baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.4f, 1.6f);
+        buffer.baseRadius[index] = baseRadius;
+        buffer.radius[index] = baseRadius;
+
+        buffer.horizontalElement[index] = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple);
+        buffer.verticalElement[index] = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        buffer.baseCx[index] = x;
+        buffer.baseCy[index] = y;
+        buffer.cx[index] = x;
+        buffer.cy[index] = y;
+
+        buffer.startOffset[index] = endValue * startRandomness * random.nextFloat();
+        buffer.endFadeOffset[index] = endRandomness * random.nextFloat();
+    }
+
+    /**
+     * 计算缓冲区 [from, to) 区间内的粒子并写入 target，逻辑与 {@link #advance(float, float)} 一致；
+     * 淡出和缩放取自 {@link ParticleBuffer#curves} 的预烘焙表。
+     * target 指向后台数组时，本帧未更新的属性从缓冲区（上一帧）复制，结果与原地更新完全相同
+     */
+    public static void advance(ParticleBuffer buffer, ParticleBuffer.Target target, int from, int to,
+                               float factor, float endValue) {
+        final float[] prevCx = buffer.cx;
+        final float[] prevCy = buffer.cy;
+        final float[] prevRadius = buffer.radius;
+        final float[] alpha = target.alpha;
+        final float[] cx = target.cx;
+        final float[] cy = target.cy;
+        final float[] radius = target.radius;
+        final boolean copy = cx != prevCx;
+        final float[] startOffset = buffer.startOffset;
+        final float[] visibleEnd = buffer.visibleEnd;
+        final float[] invSpan = buffer.invSpan;
+        final float[] fade = buffer.curves.fade;
+        final float[] scale = buffer.curves.scale;
+        final float raw = factor * buffer.invEndValue;
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        int visible = 0;
+
+        for (int i = from; i < to; i++) {
+            float start = startOffset[i];
+            if (raw < start) {
+                // 尚未启动，停留在初始位置
+                alpha[i] = 1;
+                if (copy) {
+                    cx[i] = prevCx[i];
+                    cy[i] = prevCy[i];
+                    radius[i] = prevRadius[i];
+                }
+            } else if (raw > visibleEnd[i]) {
+                alpha[i] = 0;
+                if (copy) {
+                    cx[i] = prevCx[i];
+                    cy[i] = prevCy[i];
+                    radius[i] = prevRadius[i];
+                }
+                continue;
+            } else {
+                float normalization = (raw - start) * invSpan[i];
+                float a = ParticleCurves.sample(fade, normalization);
+                alpha[i] = a;
+
+                float realValue = normalization * endValue;
+                cx[i] = buffer.baseCx[i] + buffer.horizontalElement[i] * realValue;
+                cy[i] = buffer.baseCy[i] + buffer.verticalElement[i] * realValue;
+                radius[i] = buffer.baseRadius[i] * ParticleCurves.sample(scale, normalization);
+                if (a <= 0) {
+                    continue;
+                }
+            }
+
+            // 顺便累计包围盒，绘制时不再遍历
+            float x = cx[i];
+            float y = cy[i];
+            float r = radius[i];
+            if (x - r < left) left = x - r;
+            if (x + r > right) right = x + r;
+            if (y - r < top) top = y - r;
+            if (y + r > bottom) bottom = y + r;
+            visible++;
+        }
+        target.setBounds(left, top, right, bottom);
+        target.visibleCount = visible;
+    }
+}
@@ -0,0 +1,185 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.Random;
+
+/**
+ * <pre>
+ *     author : FaDai
+ *     e-mail : i_fadai@163.com
+ *     time   : 2017/12/14
+ *     desc   : 爆炸粒子
+ *     version: 2.0
+ * </pre>
+ */
+
+public class ExplosionParticle extends Particle {
+
+    /**
+     * 生成粒子
+     *
+     * @param color              粒子颜色
+     * @param radius             粒子的半径
+     * @param rect               View区域的矩形
+     * @param endValue           动画的结束值
+     * @param random             随机数
+     * @param horizontalMultiple 水平变化幅度
+     * @param verticalMultiple   垂直变化幅度
+     * @param startRandomness    起跑随机延迟系数
+     * @param endRandomness      结束随机提前系数
+     * @param scaleMode          缩放模式
+     */
+    public ExplosionParticle(int color, int radius, ParticleRect rect, float endValue, Random random, 
+                             float horizontalMultiple, float verticalMultiple, 
+                             float startRandomness, float endRandomness, ScaleMode scaleMode) {
+
+        this.color = color;
+        this.baseAlpha = color >>> 24;
+        this.scaleMode = scaleMode;
+        alpha = 1;
+
+        float nextFloat = random.nextFloat();
+
+        // 使用基类方法计算
+        baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.4f, 0.8f);
+        this.radius = baseRadius;
+
+        horizontalElement = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple);
+        verticalElement = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        int offsetX = rect.width() / 4;
+        int offsetY = rect.height() / 4;
+
+        baseCx = rect.centerX() + offsetX * (random.nextFloat() - 0.5f);
+        baseCy = rect.centerY() + offsetY * (random.nextFloat() - 0.5f);
+        cx = baseCx;
+        cy = baseCy;
+
+        startOffset = endValue * startRandomness * random.nextFloat();
+        endFadeOffset = endRandomness * random.nextFloat();
+    }
+
+    @Override
+    public void advance(float factor, float endValue) {
+        float normalization = factor / endValue;
+
+        if (normalization < startOffset || normalization > 1f - endFadeOffset) {
+            alpha = 0;
+            return;
+        }
+        alpha = 1;
+
+        // 粒子可显示的状态中，动画实际进行到了几分之几
+        normalization = (normalization - startOffset) / (1f - startOffset - endFadeOffset);
+        
+        // 使用基类常量计算淡出
+        alpha = calculateFadeAlpha(normalization, FADE_START_THRESHOLD, FADE_DURATION_RATIO);
+
+        float realValue = normalization * endValue;
+
+        cx = baseCx + horizontalElement * realValue;
+        cy = baseCy + verticalElement * (realValue * (realValue - 1));
+
+        // 使用基类方法计算半径
+        radius = calculateRadius(baseRadius, normalization, scaleMode, 0.25f);
+    }
+
+    // ==================== ParticleBuffer 版本 ====================
+
+    /**
+     * 在缓冲区的 index 位置生成粒子，随机数消耗顺序与构造函数一致
+     * 参数含义同构造函数
+     */
+    public static void generate(ParticleBuffer buffer, int index, int color, int radius, ParticleRect rect, float endValue,
+                                ParticleRandom random, float horizontalMultiple, float verticalMultiple,
+                                float startRandomness, float endRandomness) {
+        buffer.color[index] = color;
+        buffer.alpha[index] = 1;
+
+        float nextFloat = random.nextFloat();
+
+        float baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.4f, 0.8f);
+        buffer.baseRadius[index] = baseRadius;
+        buffer.radius[index] = baseRadius;
+
+        buffer.horizontalElement[index] = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple);
+        buffer.verticalElement[index] = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        int offsetX = rect.width() / 4;
+        int offsetY = rect.height() / 4;
+
+        float baseCx = rect.centerX() + offsetX * (random.nextFloat() - 0.5f);
+        float baseCy = rect.centerY() + offsetY * (random.nextFloat() - 0.5f);
+        buffer.baseCx[index] = baseCx;
+        buffer.baseCy[index] = baseCy;
+        buffer.cx[index] = baseCx;
+        buffer.cy[index] = baseCy;
+
+        buffer.startOffset[index] = endValue * startRandomness * random.nextFloat();
+        buffer.endFadeOffset[index] = endRandomness * random.nextFloat();
+    }
+
+    /**
+     * 计算缓冲区 [from, to) 区间内的粒子并写入 target，逻辑与 {@link #advance(float, float)} 一致；
+     * 淡出、缩放和抛物线运动取自 {@link ParticleBuffer#curves} 的预烘焙表。
+     * target 指向后台数组时，本帧未更新的属性从缓冲区（上一帧）复制，结果与原地更新完全相同
+     */
+    public static void advance(ParticleBuffer buffer, ParticleBuffer.Target target, int from, int to,
+                               float factor, float endValue) {
+        final float[] prevCx = buffer.cx;
+        final float[] prevCy = buffer.cy;
+        final float[] prevRadius = buffer.radius;
+        final float[] alpha = target.alpha;
+        final float[] cx = target.cx;
+        final float[] cy = target.cy;
+        final float[] radius = target.radius;
+        final boolean copy = cx != prevCx;
+        final float[] startOffset = buffer.startOffset;
+        final float[] visibleEnd = buffer.visibleEnd;
+        final float[] invSpan = buffer.invSpan;
+        final float[] fade = buffer.curves.fade;
+        final float[] scale = buffer.curves.scale;
+        final float[] motion = buffer.curves.motion;
+        final float raw = factor * buffer.invEndValue;
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        int visible = 0;
+
+        for (int i = from; i < to; i++) {
+            float start = startOffset[i];
+            if (raw < start || raw > visibleEnd[i]) {
+                alpha[i] = 0;
+                if (copy) {
+                    cx[i] = prevCx[i];
+                    cy[i] = prevCy[i];
+                    radius[i] = prevRadius[i];
+                }
+                continue;
+            }
+
+            float normalization = (raw - start) * invSpan[i];
+            float a = ParticleCurves.sample(fade, normalization);
+            alpha[i] = a;
+            cx[i] = buffer.baseCx[i] + buffer.horizontalElement[i] * (normalization * endValue);
+            cy[i] = buffer.baseCy[i] + buffer.verticalElement[i] * ParticleCurves.sample(motion, normalization);
+            radius[i] = buffer.baseRadius[i] * ParticleCurves.sample(scale, normalization);
+            if (a <= 0) {
+                continue;
+            }
+
+            // 顺便累计包围盒，绘制时不再遍历
+            float x = cx[i];
+            float y = cy[i];
+            float r = radius[i];
+            if (x - r < left) left = x - r;
+            if (x + r > right) right = x + r;
+            if (y - r < top) top = y - r;
+            if (y + r > bottom) bottom = y + r;
+            visible++;
+        }
+        target.setBounds(left, top, right, bottom);
+        target.visibleCount = visible;
+    }
+}
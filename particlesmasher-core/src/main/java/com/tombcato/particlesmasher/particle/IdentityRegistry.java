@@ -0,0 +1,250 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ *     desc   : 按对象身份（==）索引的登记表
+ *              开放寻址哈希表（线性探测，删除时回移）记录 key 在稠密数组中的位置，查找、加入、移除均为 O(1)；
+ *              值按加入顺序存放在稠密数组中，移除只留空位，空位超过一半时整体压紧，遍历时拷贝到调用方复用的数组。
+ *              加入、移除和遍历不分配对象（扩容除外）。非线程安全。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class IdentityRegistry<K, V> {
+
+    private static final int MIN_TABLE_SIZE = 16;
+
+    // ==================== 稠密数组（按加入顺序，移除后留空） ====================
+
+    private Object[] mKeys;
+    private Object[] mValues;
+    private int mEnd;                   // 稠密数组已使用的长度（含空位）
+    private int mSize;                  // 登记数
+
+    // ==================== 哈希索引：key -> 稠密数组下标 ====================
+
+    private Object[] mTableKeys;
+    private int[] mTableIndex;
+    private int mMask;
+
+    public IdentityRegistry() {
+        mKeys = new Object[MIN_TABLE_SIZE / 2];
+        mValues = new Object[MIN_TABLE_SIZE / 2];
+        mTableKeys = new Object[MIN_TABLE_SIZE];
+        mTableIndex = new int[MIN_TABLE_SIZE];
+        mMask = MIN_TABLE_SIZE - 1;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    public boolean isEmpty() {
+        return mSize == 0;
+    }
+
+    public boolean containsKey(K key) {
+        return find(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(K key) {
+        int slot = find(key);
+        return slot >= 0 ? (V) mValues[mTableIndex[slot]] : null;
+    }
+
+    /**
+     * 登记 key 对应的值。key 已存在时替换旧值，并移到末尾（视为最新加入）
+     * @return 被替换的旧值，没有则为 null
+     */
+    public V put(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException("key and value must not be null");
+        }
+        V previous = remove(key);
+        if (mEnd == mKeys.length) {
+            if (mEnd - mSize >= mSize) {
+                compact();
+            } else {
+                int capacity = mKeys.length * 2;
+                mKeys = Arrays.copyOf(mKeys, capacity);
+                mValues = Arrays.copyOf(mValues, capacity);
+            }
+        }
+        if ((mSize + 1) * 2 > mTableKeys.length) {
+            rehash(mTableKeys.length * 2);
+        }
+        int index = mEnd++;
+        mKeys[index] = key;
+        mValues[index] = value;
+        int slot = hash(key) & mMask;
+        while (mTableKeys[slot] != null) {
+            slot = (slot + 1) & mMask;
+        }
+        mTableKeys[slot] = key;
+        mTableIndex[slot] = index;
+        mSize++;
+        return previous;
+    }
+
+    /**
+     * 移除 key 的登记
+     * @return 移除的值，未登记时为 null
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(K key) {
+        int slot = find(key);
+        if (slot < 0) {
+            return null;
+        }
+        int index = mTableIndex[slot];
+        V value = (V) mValues[index];
+        removeSlot(slot);
+        mKeys[index] = null;
+        mValues[index] = null;
+        mSize--;
+        if (mSize == 0) {
+            mEnd = 0;
+        } else if (index == mEnd - 1) {
+            mEnd--;
+        } else if (mEnd - mSize > mSize) {
+            // 空位超过一半时压紧，均摊 O(1)
+            compact();
+        }
+        return value;
+    }
+
+    /**
+     * 仅当 key 当前登记的值是 value 时移除
+     * @return 是否移除
+     */
+    public boolean remove(K key, V value) {
+        int slot = find(key);
+        if (slot < 0 || mValues[mTableIndex[slot]] != value) {
+            return false;
+        }
+        remove(key);
+        return true;
+    }
+
+    public void clear() {
+        Arrays.fill(mKeys, 0, mEnd, null);
+        Arrays.fill(mValues, 0, mEnd, null);
+        Arrays.fill(mTableKeys, null);
+        mEnd = 0;
+        mSize = 0;
+    }
+
+    /**
+     * 按加入顺序把全部值拷贝到 dest
+     * @param dest 长度不小于 {@link #size()} 的数组
+     * @return 拷贝的数量
+     */
+    @SuppressWarnings("unchecked")
+    public int copyValues(V[] dest) {
+        final Object[] values = mValues;
+        int count = 0;
+        for (int i = 0, end = mEnd; i < end; i++) {
+            Object value = values[i];
+            if (value != null) {
+                dest[count++] = (V) value;
+            }
+        }
+        return count;
+    }
+
+    // ==================== 内部实现 ====================
+
+    private static int hash(Object key) {
+        // identityHashCode 低位分布不均，混合高位
+        int h = System.identityHashCode(key) * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return key 在哈希表中的槽位，不存在时为 -1
+     */
+    private int find(Object key) {
+        if (key == null) {
+            return -1;
+        }
+        final Object[] tableKeys = mTableKeys;
+        int slot = hash(key) & mMask;
+        Object k;
+        while ((k = tableKeys[slot]) != null) {
+            if (k == key) {
+                return slot;
+            }
+            slot = (slot + 1) & mMask;
+        }
+        return -1;
+    }
+
+    /**
+     * 清除槽位，并把同一探测链上后面的元素回移，保持线性探测可达
+     */
+    private void removeSlot(int slot) {
+        final Object[] tableKeys = mTableKeys;
+        final int[] tableIndex = mTableIndex;
+        final int mask = mMask;
+        int hole = slot;
+        int next = (hole + 1) & mask;
+        Object k;
+        while ((k = tableKeys[next]) != null) {
+            int home = hash(k) & mask;
+            // home 不在 (hole, next] 区间内时，可以移到空位
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                tableKeys[hole] = k;
+                tableIndex[hole] = tableIndex[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        tableKeys[hole] = null;
+    }
+
+    /**
+     * 压紧稠密数组并更新哈希表中的下标，保持加入顺序
+     */
+    private void compact() {
+        final Object[] keys = mKeys;
+        final Object[] values = mValues;
+        int count = 0;
+        for (int i = 0, end = mEnd; i < end; i++) {
+            Object key = keys[i];
+            if (key == null) {
+                continue;
+            }
+            if (i != count) {
+                keys[count] = key;
+                values[count] = values[i];
+                keys[i] = null;
+                values[i] = null;
+                mTableIndex[find(key)] = count;
+            }
+            count++;
+        }
+        mEnd = count;
+    }
+
+    private void rehash(int tableSize) {
+        mTableKeys = new Object[tableSize];
+        mTableIndex = new int[tableSize];
+        mMask = tableSize - 1;
+        final Object[] keys = mKeys;
+        for (int i = 0, end = mEnd; i < end; i++) {
+            Object key = keys[i];
+            if (key == null) {
+                continue;
+            }
+            int slot = hash(key) & mMask;
+            while (mTableKeys[slot] != null) {
+                slot = (slot + 1) & mMask;
+            }
+            mTableKeys[slot] = key;
+            mTableIndex[slot] = i;
+        }
+    }
+}
@@ -1,15 +1,13 @@
 package com.tombcato.particlesmasher.particle;
 
-import android.graphics.Rect;
-
-import java.util.Random;
-
 /**
  * <pre>
  *     author : FaDai
  *     e-mail : i_fadai@163.com
  *     time   : 2017/12/20
  *     desc   : 粒子基类
+ *              对象形式保留用于兼容；SmashAnimator 内部使用 {@link ParticleBuffer}，
+ *              各子类的静态 generate/advance 方法直接读写缓冲区
  *     version: 2.0
  * </pre>
  */
@@ -70,14 +68,14 @@ public abstract class Particle {
     /**
      * 计算粒子基础半径（带随机变化）
      * @param radius 基础半径
-     * @param random 随机数生成器
+     * @param jitter 半径抖动随机数 (0~1)
      * @param nextFloat 随机因子 (0~1)
      * @param smallMultiplier 小概率缩放因子（nextFloat 0.6~0.8 时使用）
      * @param largeMultiplier 大概率缩放因子（nextFloat > 0.8 时使用）
      */
-    protected static float calculateBaseRadius(float radius, Random random, float nextFloat, 
+    protected static float calculateBaseRadius(float radius, float jitter, float nextFloat, 
                                                float smallMultiplier, float largeMultiplier) {
-        float r = radius + radius * (random.nextFloat() - 0.5f) * 0.5f;
+        float r = radius + radius * (jitter - 0.5f) * 0.5f;
         if (nextFloat < 0.6f) {
             return r;
         } else if (nextFloat < 0.8f) {
@@ -89,9 +87,10 @@ public abstract class Particle {
     
     /**
      * 计算水平变化参数
+     * @param jitter 幅度随机数 (0~1)
      */
-    protected static float calculateHorizontalElement(Rect rect, Random random, float nextFloat, float multiplier) {
-        float horizontal = rect.width() * (random.nextFloat() - 0.5f);
+    protected static float calculateHorizontalElement(ParticleRect rect, float jitter, float nextFloat, float multiplier) {
+        float horizontal = rect.width() * (jitter - 0.5f);
         if (nextFloat < 0.2f) {
             horizontal = horizontal;
         } else if (nextFloat < 0.8f) {
@@ -104,9 +103,10 @@ public abstract class Particle {
     
     /**
      * 计算垂直变化参数
+     * @param jitter 幅度随机数 (0~1)
      */
-    protected static float calculateVerticalElement(Rect rect, Random random, float nextFloat, float multiplier) {
-        float vertical = rect.height() * (random.nextFloat() * 0.5f + 0.5f);
+    protected static float calculateVerticalElement(ParticleRect rect, float jitter, float nextFloat, float multiplier) {
+        float vertical = rect.height() * (jitter * 0.5f + 0.5f);
         if (nextFloat < 0.2f) {
             vertical = vertical;
         } else if (nextFloat < 0.8f) {
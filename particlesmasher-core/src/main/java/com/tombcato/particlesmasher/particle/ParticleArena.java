@@ -0,0 +1,137 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     desc   : 粒子存储池
+ *              按 {@link #CHUNK_SIZE} 的整数倍分配 {@link ParticleBuffer}，动画结束/停止后归还，
+ *              下次按“容量足够的最小块”复用；空闲时裁剪到保留容量。
+ *              预热之后，重复粉碎不再为粒子存储分配内存。线程安全。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleArena {
+
+    /** 分配粒度（粒子数） */
+    public static final int CHUNK_SIZE = 1024;
+
+    /** 默认空闲时保留的容量（粒子数） */
+    public static final int DEFAULT_RETAIN_CAPACITY = 4 * CHUNK_SIZE;
+
+    /** 空闲缓冲区，按容量从小到大排列 */
+    private final ArrayList<ParticleBuffer> mFree = new ArrayList<>();
+
+    private int mRetainCapacity = DEFAULT_RETAIN_CAPACITY;
+    private int mFreeCapacity;          // 空闲缓冲区总容量
+    private int mTotalCapacity;         // 已分配且未裁剪的总容量（使用中 + 空闲）
+    private int mAllocationCount;       // 累计新建缓冲区次数
+
+    /**
+     * 获取容量不小于 count 的缓冲区
+     * @param count 需要的粒子数量
+     * @return 缓冲区（count 已置 0），用完后通过 {@link #release(ParticleBuffer)} 归还
+     */
+    public synchronized ParticleBuffer acquire(int count) {
+        return acquire(count, false);
+    }
+
+    /**
+     * 获取容量不小于 count 的缓冲区，优先复用与 procedural 布局相同的空闲缓冲区，
+     * 避免保存模式与程序化模式交替时反复分配/释放逐粒子属性数组
+     * @param count      需要的粒子数量
+     * @param procedural 是否用于程序化模式（{@link ParticleBuffer#resetProcedural}）
+     */
+    public synchronized ParticleBuffer acquire(int count, boolean procedural) {
+        int fallback = -1;
+        for (int i = 0, size = mFree.size(); i < size; i++) {
+            ParticleBuffer buffer = mFree.get(i);
+            if (buffer.capacity() >= count) {
+                if (buffer.hasStoredAttributes() != procedural) {
+                    return take(i);
+                }
+                if (fallback < 0) {
+                    fallback = i;
+                }
+            }
+        }
+        if (fallback >= 0) {
+            return take(fallback);
+        }
+        int capacity = Math.max(1, (count + CHUNK_SIZE - 1) / CHUNK_SIZE) * CHUNK_SIZE;
+        mTotalCapacity += capacity;
+        mAllocationCount++;
+        return new ParticleBuffer(capacity, procedural);
+    }
+
+    /**
+     * 归还缓冲区
+     * @param buffer 通过 {@link #acquire(int)} 获取的缓冲区
+     */
+    public synchronized void release(ParticleBuffer buffer) {
+        if (buffer == null || mFree.contains(buffer)) {
+            return;
+        }
+        buffer.count = 0;
+        int capacity = buffer.capacity();
+        int index = 0;
+        while (index < mFree.size() && mFree.get(index).capacity() < capacity) {
+            index++;
+        }
+        mFree.add(index, buffer);
+        mFreeCapacity += capacity;
+    }
+
+    /**
+     * 空闲裁剪：从最大的空闲缓冲区开始丢弃，直到空闲容量不超过保留容量
+     */
+    public synchronized void trim() {
+        trimToSize(mRetainCapacity);
+    }
+
+    /**
+     * 丢弃全部空闲缓冲区
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    /**
+     * 设置空闲时保留的容量，{@link #trim()} 后空闲容量不超过该值
+     * @param capacity 粒子数
+     */
+    public synchronized void setRetainCapacity(int capacity) {
+        mRetainCapacity = Math.max(0, capacity);
+    }
+
+    /** 已分配的总容量（粒子数，使用中 + 空闲） */
+    public synchronized int getTotalCapacity() {
+        return mTotalCapacity;
+    }
+
+    /** 空闲容量（粒子数） */
+    public synchronized int getFreeCapacity() {
+        return mFreeCapacity;
+    }
+
+    /** 累计新建缓冲区次数，预热后不再增长 */
+    public synchronized int getAllocationCount() {
+        return mAllocationCount;
+    }
+
+    private ParticleBuffer take(int index) {
+        ParticleBuffer buffer = mFree.remove(index);
+        mFreeCapacity -= buffer.capacity();
+        buffer.count = 0;
+        return buffer;
+    }
+
+    private void trimToSize(int capacity) {
+        for (int i = mFree.size() - 1; i >= 0 && mFreeCapacity > capacity; i--) {
+            ParticleBuffer buffer = mFree.remove(i);
+            mFreeCapacity -= buffer.capacity();
+            mTotalCapacity -= buffer.capacity();
+        }
+    }
+}
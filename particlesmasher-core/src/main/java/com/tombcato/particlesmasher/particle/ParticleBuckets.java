@@ -0,0 +1,236 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.Arrays;
+
+/**
+ * <pre>
+ *     desc   : 粒子分桶
+ *              将颜色、透明度、半径量化为桶，并把每个桶内粒子的坐标连续排列，
+ *              绘制端对每个桶发出一次绘制调用（如 Canvas.drawPoints）。
+ *              颜色在生成粒子后量化为调色板，之后每帧只按透明度和半径分桶；所有数组复用，不逐帧分配。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleBuckets {
+
+    /** 颜色量化位数（每通道），3 位即 512 种颜色 */
+    private static final int COLOR_BITS = 3;
+    private static final int COLOR_SHIFT = 8 - COLOR_BITS;
+    private static final int COLOR_KEYS = 1 << (COLOR_BITS * 3);
+
+    /** 透明度量化级数 */
+    private static final int ALPHA_LEVELS = 8;
+
+    /** 半径量化级数 */
+    private static final int RADIUS_LEVELS = 6;
+
+    // ==================== 调色板（生成粒子时计算一次） ====================
+
+    private int[] mPaletteIndex = new int[0];       // 粒子 -> 调色板下标
+    private int[] mPaletteColors = new int[0];      // 调色板颜色（桶内平均色，不含 alpha）
+    private float mMaxRadius;                       // 半径量化上限
+    private final int[] mLookup = new int[COLOR_KEYS];          // 量化颜色 -> 调色板下标
+    private final long[] mSums = new long[COLOR_KEYS * 3];      // 调色板各通道累加值
+    private final int[] mSizes = new int[COLOR_KEYS];           // 调色板各项粒子数
+
+    // ==================== 每帧复用的分桶数据 ====================
+
+    private int[] mBucketCounts = new int[0];       // 桶 -> 粒子数量（用完清零）
+    private int[] mBucketOffsets = new int[0];      // 桶 -> 在 mPoints 中的写入位置
+    private int[] mTouched = new int[0];            // 本帧用到的桶
+    private int[] mTouchedStart = new int[0];       // 本帧用到的桶在 mPoints 中的起点
+    private int[] mTouchedLength = new int[0];      // 本帧用到的桶在 mPoints 中的长度
+    private int[] mKeys = new int[0];               // 粒子 -> 本帧所在桶（-1 表示不可见）
+    private float[] mPoints = new float[0];         // 按桶排列的点坐标 (x, y)
+
+    /**
+     * 为粒子建立调色板，粒子颜色在动画过程中不变，只需在生成后调用一次
+     * @param buffer 粒子数据
+     */
+    public void prepare(ParticleBuffer buffer) {
+        final int count = buffer.count;
+        final int[] colors = buffer.color;
+        if (mPaletteIndex.length < count) {
+            mPaletteIndex = new int[count];
+            mKeys = new int[count];
+            mPoints = new float[count * 2];
+        }
+
+        final int[] lookup = mLookup;
+        final long[] sums = mSums;
+        final int[] sizes = mSizes;
+        Arrays.fill(lookup, -1);
+        Arrays.fill(sums, 0);
+        Arrays.fill(sizes, 0);
+        int paletteSize = 0;
+        float maxRadius = 0;
+
+        for (int i = 0; i < count; i++) {
+            int color = colors[i];
+            int r = (color >> 16) & 0xFF;
+            int g = (color >> 8) & 0xFF;
+            int b = color & 0xFF;
+            int key = ((r >> COLOR_SHIFT) << (COLOR_BITS * 2)) | ((g >> COLOR_SHIFT) << COLOR_BITS) | (b >> COLOR_SHIFT);
+            int index = lookup[key];
+            if (index < 0) {
+                index = paletteSize++;
+                lookup[key] = index;
+            }
+            mPaletteIndex[i] = index;
+            sums[index * 3] += r;
+            sums[index * 3 + 1] += g;
+            sums[index * 3 + 2] += b;
+            sizes[index]++;
+
+            // 放大模式下半径会超过初始值，上限按 1.5 倍预留
+            float radius = buffer.baseRadius(i) * 1.5f;
+            if (radius > maxRadius) maxRadius = radius;
+        }
+
+        if (mPaletteColors.length < paletteSize) {
+            mPaletteColors = new int[paletteSize];
+        }
+        for (int i = 0; i < paletteSize; i++) {
+            int n = sizes[i];
+            int r = (int) (sums[i * 3] / n);
+            int g = (int) (sums[i * 3 + 1] / n);
+            int b = (int) (sums[i * 3 + 2] / n);
+            mPaletteColors[i] = 0xFF000000 | (r << 16) | (g << 8) | b;
+        }
+        mMaxRadius = maxRadius > 0 ? maxRadius : 1;
+
+        int buckets = paletteSize * ALPHA_LEVELS * RADIUS_LEVELS;
+        if (mBucketCounts.length < buckets) {
+            mBucketCounts = new int[buckets];
+            mBucketOffsets = new int[buckets];
+            mTouched = new int[buckets];
+            mTouchedStart = new int[buckets];
+            mTouchedLength = new int[buckets];
+        }
+    }
+
+    /**
+     * 量化后点的半径最多比实际半径大一级，脏区需按此扩展
+     */
+    public float getRadiusPadding() {
+        return mMaxRadius / RADIUS_LEVELS;
+    }
+
+    /**
+     * 按桶排列可见粒子的坐标（粒子状态需已 advance）
+     * @param buffer 粒子数据
+     * @param stride 粒子步长，2 表示隔一个取一个
+     * @return 本帧用到的桶数，桶 b 的坐标位于 {@link #getPoints()} 的
+     *         [{@link #getStart(int)}, getStart(b) + {@link #getLength(int)})
+     */
+    public int bucket(ParticleBuffer buffer, int stride) {
+        final int count = buffer.count;
+        final int[] colors = buffer.color;
+        final float[] alphas = buffer.alpha;
+        final float[] xs = buffer.cx;
+        final float[] ys = buffer.cy;
+        final float[] radii = buffer.radius;
+        final int[] paletteIndex = mPaletteIndex;
+        final int[] keys = mKeys;
+        final int[] counts = mBucketCounts;
+        final int[] touched = mTouched;
+        final float radiusScale = RADIUS_LEVELS / mMaxRadius;
+        int touchedCount = 0;
+
+        // 第一遍：计算每个粒子的桶并计数（脏区已在 advance 时计算）
+        for (int i = 0; i < count; i += stride) {
+            float alpha = alphas[i];
+            int a = (int) ((colors[i] >>> 24) * alpha);
+            float radius = radii[i];
+            if (alpha <= 0 || a <= 0 || radius <= 0) {
+                keys[i] = -1;
+                continue;
+            }
+            int alphaLevel = a * ALPHA_LEVELS >> 8;
+            int radiusLevel = (int) (radius * radiusScale);
+            if (radiusLevel >= RADIUS_LEVELS) radiusLevel = RADIUS_LEVELS - 1;
+
+            int key = (paletteIndex[i] * ALPHA_LEVELS + alphaLevel) * RADIUS_LEVELS + radiusLevel;
+            keys[i] = key;
+            if (counts[key]++ == 0) {
+                touched[touchedCount++] = key;
+            }
+        }
+
+        if (touchedCount == 0) {
+            return 0;
+        }
+
+        // 计算每个桶的写入位置
+        final int[] offsets = mBucketOffsets;
+        final int[] starts = mTouchedStart;
+        final int[] lengths = mTouchedLength;
+        int offset = 0;
+        for (int t = 0; t < touchedCount; t++) {
+            int key = touched[t];
+            int n = counts[key] * 2;
+            offsets[key] = offset;
+            starts[t] = offset;
+            lengths[t] = n;
+            counts[key] = 0;
+            offset += n;
+        }
+
+        // 第二遍：把坐标写入对应桶
+        final float[] points = mPoints;
+        for (int i = 0; i < count; i += stride) {
+            int key = keys[i];
+            if (key < 0) continue;
+            int p = offsets[key];
+            points[p] = xs[i];
+            points[p + 1] = ys[i];
+            offsets[key] = p + 2;
+        }
+        return touchedCount;
+    }
+
+    /**
+     * 按桶排列的点坐标 (x, y)
+     */
+    public float[] getPoints() {
+        return mPoints;
+    }
+
+    /**
+     * 桶 b 在 {@link #getPoints()} 中的起点
+     */
+    public int getStart(int b) {
+        return mTouchedStart[b];
+    }
+
+    /**
+     * 桶 b 在 {@link #getPoints()} 中的长度（坐标数，粒子数的 2 倍）
+     */
+    public int getLength(int b) {
+        return mTouchedLength[b];
+    }
+
+    /**
+     * 桶 b 的颜色（不透明，调色板平均色）
+     */
+    public int getColor(int b) {
+        return mPaletteColors[mTouched[b] / (RADIUS_LEVELS * ALPHA_LEVELS)];
+    }
+
+    /**
+     * 桶 b 的透明度（0~255，取量化区间的中点）
+     */
+    public int getAlpha(int b) {
+        int alphaLevel = (mTouched[b] / RADIUS_LEVELS) % ALPHA_LEVELS;
+        return ((alphaLevel << 1) + 1) * 256 / (ALPHA_LEVELS << 1);
+    }
+
+    /**
+     * 桶 b 的代表半径（取量化区间的中点）
+     */
+    public float getRadius(int b) {
+        int radiusLevel = mTouched[b] % RADIUS_LEVELS;
+        return (radiusLevel + 0.5f) * mMaxRadius / RADIUS_LEVELS;
+    }
+}
@@ -0,0 +1,397 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 粒子数据缓冲区（Structure of Arrays）
+ *              每个属性一个基本类型数组，下标即粒子编号，不再为每个粒子创建对象。
+ *              四种粒子样式都通过各自的静态 generate/advance 方法读写本缓冲区。
+ *              程序化模式（{@link #resetProcedural}）只保存 color 与 cell，不分配其余的粒子属性，
+ *              由 {@link ProceduralParticles} 每帧从网格编号重新计算。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleBuffer {
+
+    // ==================== 粒子类型 ====================
+
+    public static final int KIND_EXPLOSION = 0;     // 爆炸
+    public static final int KIND_DROP = 1;          // 下落
+    public static final int KIND_FLOAT = 2;         // 飘落（方向见 direction）
+    public static final int KIND_RISE = 3;          // 向上飘散（方向见 direction）
+
+    // ==================== 整体参数 ====================
+
+    /** 粒子类型，同一缓冲区内所有粒子类型一致 */
+    public int kind = KIND_EXPLOSION;
+
+    /** Float/Rise 的方向，取值见 {@link FloatParticle#ORIENTATION_LEFT} 等 / {@link RiseParticle#DIRECTION_ALL} 等 */
+    public int direction;
+
+    /** 缩放模式 */
+    public Particle.ScaleMode scaleMode = Particle.ScaleMode.SCALE_DOWN;
+
+    /** 有效粒子数量 */
+    public int count;
+
+    /** 是否为程序化模式：只保存 color 与 cell，保存模式的粒子属性与预计算数组为 null */
+    public boolean procedural;
+
+    /** 程序化模式的生成参数 */
+    public final ProceduralParticles params = new ProceduralParticles();
+
+    // ==================== 粒子属性（下标 = 粒子编号） ====================
+
+    public int[] color;                 // 颜色（初始透明度取高 8 位）
+    public float[] radius;              // 半径
+    public float[] alpha;               // 透明度（0~1）
+    public float[] cx;                  // 圆心 x
+    public float[] cy;                  // 圆心 y
+
+    /** 程序化模式：粒子所在的网格编号（行优先，抽稀和剔除前的编号） */
+    public int[] cell;
+
+    // ==================== 保存模式的粒子属性 ====================
+
+    public float[] horizontalElement;   // 水平变化参数
+    public float[] verticalElement;     // 垂直变化参数
+
+    public float[] baseRadius;          // 初始半径
+    public float[] baseCx;              // 初始圆心 x
+    public float[] baseCy;              // 初始圆心 y
+
+    public float[] startOffset;         // 粒子延迟启动的时间偏移
+    public float[] endFadeOffset;       // 粒子提前消失的时间偏移
+
+    /** Float/Rise 逐行/逐列启动时使用的位置比例（left 或 top，0~1） */
+    public float[] trigger;
+
+    // ==================== 预计算（bake 后有效） ====================
+
+    public float[] visibleEnd;          // 可见窗口终点：1 - endFadeOffset
+    public float[] invSpan;             // 可见窗口长度的倒数：1 / (1 - startOffset - endFadeOffset)
+
+    /** 当前样式的曲线查找表 */
+    public final ParticleCurves curves = new ParticleCurves();
+
+    /** 烘焙时的动画结束值的倒数 */
+    public float invEndValue = 1f;
+
+    // ==================== 包围盒（advance 时累计） ====================
+
+    /** 可见粒子（alpha > 0）的包围盒，含半径；没有可见粒子时 left > right */
+    public float boundsLeft;
+    public float boundsTop;
+    public float boundsRight;
+    public float boundsBottom;
+
+    /** 可见粒子（alpha > 0）数量，与包围盒一起累计 */
+    public int visibleCount;
+
+    // ==================== 双缓冲 ====================
+
+    /** 指向本缓冲区自身数组的写入目标（单缓冲 advance） */
+    private final Target mFront = new Target();
+
+    /** 后台数组，仅在多线程推进时分配，与 alpha/cx/cy/radius 交换 */
+    private float[] mBackAlpha;
+    private float[] mBackCx;
+    private float[] mBackCy;
+    private float[] mBackRadius;
+
+    /**
+     * advance 的写入目标：逐帧变化的属性数组 + 本段粒子的包围盒。
+     * 单缓冲时指向缓冲区自身的数组；双缓冲时指向后台数组，未更新的属性从缓冲区自身（上一帧）复制
+     */
+    public static final class Target {
+        public float[] alpha;
+        public float[] cx;
+        public float[] cy;
+        public float[] radius;
+
+        /** 本段可见粒子的包围盒，没有可见粒子时 left > right */
+        public float boundsLeft;
+        public float boundsTop;
+        public float boundsRight;
+        public float boundsBottom;
+
+        /** 本段可见粒子数量 */
+        public int visibleCount;
+
+        void setBounds(float left, float top, float right, float bottom) {
+            boundsLeft = left;
+            boundsTop = top;
+            boundsRight = right;
+            boundsBottom = bottom;
+        }
+    }
+
+    public ParticleBuffer() {
+        this(0);
+    }
+
+    public ParticleBuffer(int capacity) {
+        this(capacity, false);
+    }
+
+    /**
+     * @param procedural 是否用于程序化模式，是则不分配保存模式的粒子属性数组
+     */
+    public ParticleBuffer(int capacity, boolean procedural) {
+        allocate(capacity, !procedural);
+    }
+
+    /**
+     * 当前容量
+     */
+    public int capacity() {
+        return cx.length;
+    }
+
+    /**
+     * 以保存模式重置缓冲区，容量不足时扩容（不保留旧数据）
+     * @param count     粒子数量
+     * @param kind      粒子类型
+     * @param direction Float/Rise 的方向
+     * @param scaleMode 缩放模式
+     */
+    public void reset(int count, int kind, int direction, Particle.ScaleMode scaleMode) {
+        if (count > capacity()) {
+            allocate(count, true);
+        } else if (baseCx == null) {
+            allocateStored(capacity());
+        }
+        cell = null;
+        procedural = false;
+        this.count = count;
+        this.kind = kind;
+        this.direction = direction;
+        this.scaleMode = scaleMode;
+    }
+
+    /**
+     * 以程序化模式重置缓冲区：只保留 color 与 cell，释放保存模式的粒子属性数组
+     * 参数含义同 {@link #reset}
+     */
+    public void resetProcedural(int count, int kind, int direction, Particle.ScaleMode scaleMode) {
+        if (count > capacity()) {
+            allocate(count, false);
+        } else {
+            releaseStored();
+        }
+        if (cell == null || cell.length < capacity()) {
+            cell = new int[capacity()];
+        }
+        procedural = true;
+        this.count = count;
+        this.kind = kind;
+        this.direction = direction;
+        this.scaleMode = scaleMode;
+    }
+
+    /**
+     * 是否保存了逐粒子的属性数组（保存模式），程序化模式下为 false
+     */
+    public boolean hasStoredAttributes() {
+        return baseCx != null;
+    }
+
+    /**
+     * 粒子 index 的初始半径，程序化模式下由网格编号重新计算
+     */
+    public float baseRadius(int index) {
+        return procedural ? params.baseRadius(kind, cell[index]) : baseRadius[index];
+    }
+
+    /**
+     * 所有粒子中最大的初始半径
+     */
+    public float maxBaseRadius() {
+        float max = 0;
+        for (int i = 0; i < count; i++) {
+            float r = baseRadius(i);
+            if (r > max) max = r;
+        }
+        return max;
+    }
+
+    /**
+     * 清空包围盒与可见粒子数
+     */
+    public void resetBounds() {
+        visibleCount = 0;
+        boundsLeft = Float.MAX_VALUE;
+        boundsTop = Float.MAX_VALUE;
+        boundsRight = -Float.MAX_VALUE;
+        boundsBottom = -Float.MAX_VALUE;
+    }
+
+    /**
+     * 是否有可见粒子
+     */
+    public boolean hasBounds() {
+        return boundsLeft <= boundsRight;
+    }
+
+    /**
+     * 把一段粒子的包围盒与可见粒子数合并进来
+     */
+    public void unionBounds(Target target) {
+        visibleCount += target.visibleCount;
+        if (target.boundsLeft < boundsLeft) boundsLeft = target.boundsLeft;
+        if (target.boundsTop < boundsTop) boundsTop = target.boundsTop;
+        if (target.boundsRight > boundsRight) boundsRight = target.boundsRight;
+        if (target.boundsBottom > boundsBottom) boundsBottom = target.boundsBottom;
+    }
+
+    /**
+     * 让 target 指向后台数组（按需分配），用于在后台线程计算下一帧
+     */
+    public void bindBack(Target target) {
+        int capacity = capacity();
+        if (mBackCx == null || mBackCx.length < capacity) {
+            mBackAlpha = new float[capacity];
+            mBackCx = new float[capacity];
+            mBackCy = new float[capacity];
+            mBackRadius = new float[capacity];
+        }
+        target.alpha = mBackAlpha;
+        target.cx = mBackCx;
+        target.cy = mBackCy;
+        target.radius = mBackRadius;
+    }
+
+    /**
+     * 交换前后台数组：后台计算完成的一帧成为当前帧。包围盒由调用方合并
+     */
+    public void swapBuffers() {
+        float[] temp = alpha;
+        alpha = mBackAlpha;
+        mBackAlpha = temp;
+        temp = cx;
+        cx = mBackCx;
+        mBackCx = temp;
+        temp = cy;
+        cy = mBackCy;
+        mBackCy = temp;
+        temp = radius;
+        radius = mBackRadius;
+        mBackRadius = temp;
+        bindFront();
+    }
+
+    private void bindFront() {
+        mFront.alpha = alpha;
+        mFront.cx = cx;
+        mFront.cy = cy;
+        mFront.radius = radius;
+    }
+
+    private void allocate(int capacity, boolean stored) {
+        color = new int[capacity];
+        radius = new float[capacity];
+        alpha = new float[capacity];
+        cx = new float[capacity];
+        cy = new float[capacity];
+        cell = null;
+        mBackAlpha = null;
+        mBackCx = null;
+        mBackCy = null;
+        mBackRadius = null;
+        bindFront();
+        if (stored) {
+            allocateStored(capacity);
+        } else {
+            releaseStored();
+        }
+    }
+
+    private void allocateStored(int capacity) {
+        horizontalElement = new float[capacity];
+        verticalElement = new float[capacity];
+        baseRadius = new float[capacity];
+        baseCx = new float[capacity];
+        baseCy = new float[capacity];
+        startOffset = new float[capacity];
+        endFadeOffset = new float[capacity];
+        trigger = new float[capacity];
+        visibleEnd = new float[capacity];
+        invSpan = new float[capacity];
+    }
+
+    private void releaseStored() {
+        horizontalElement = null;
+        verticalElement = null;
+        baseRadius = null;
+        baseCx = null;
+        baseCy = null;
+        startOffset = null;
+        endFadeOffset = null;
+        trigger = null;
+        visibleEnd = null;
+        invSpan = null;
+    }
+
+    /**
+     * 生成粒子之后调用一次：预计算每个粒子的可见窗口倒数，并烘焙当前样式的曲线表。
+     * 之后 {@link #advance} 只做查表和乘加
+     * @param endValue 动画结束值
+     */
+    public void bake(float endValue) {
+        if (!procedural) {
+            final float[] start = startOffset;
+            final float[] end = endFadeOffset;
+            for (int i = 0; i < count; i++) {
+                visibleEnd[i] = 1f - end[i];
+                invSpan[i] = 1f / (1f - start[i] - end[i]);
+            }
+        }
+        invEndValue = 1f / endValue;
+        curves.bake(kind, scaleMode, endValue);
+    }
+
+    /**
+     * 根据动画进度更新全部粒子，需先调用 {@link #bake(float)}
+     * @param factor   当前动画值
+     * @param endValue 动画结束值
+     */
+    public void advance(float factor, float endValue) {
+        resetBounds();
+        advance(0, count, factor, endValue);
+    }
+
+    /**
+     * 根据动画进度更新 [from, to) 区间内的粒子，包围盒在现有基础上扩展
+     */
+    public void advance(int from, int to, float factor, float endValue) {
+        advance(mFront, from, to, factor, endValue);
+        unionBounds(mFront);
+    }
+
+    /**
+     * 根据动画进度计算 [from, to) 区间内的粒子，写入 target，本缓冲区只读。
+     * 不同区间可以在不同线程并发计算
+     * @param target 写入目标，其包围盒被覆盖为本区间的包围盒
+     */
+    public void advance(Target target, int from, int to, float factor, float endValue) {
+        if (procedural) {
+            ProceduralParticles.advance(this, target, from, to, factor, endValue);
+            return;
+        }
+        switch (kind) {
+            case KIND_DROP:
+                DropParticle.advance(this, target, from, to, factor, endValue);
+                break;
+            case KIND_FLOAT:
+                FloatParticle.advance(this, target, from, to, factor, endValue);
+                break;
+            case KIND_RISE:
+                RiseParticle.advance(this, target, from, to, factor, endValue);
+                break;
+            case KIND_EXPLOSION:
+            default:
+                ExplosionParticle.advance(this, target, from, to, factor, endValue);
+                break;
+        }
+    }
+}
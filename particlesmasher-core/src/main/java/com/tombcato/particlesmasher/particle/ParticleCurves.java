@@ -0,0 +1,87 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 预烘焙的粒子曲线查找表
+ *              把每种样式的淡出曲线、缩放曲线和运动曲线按归一化进度 (0~1) 采样为定长表，
+ *              advance 时只需查表 + 线性插值，不再逐粒子分支和做除法。
+ *              同一组参数（样式、缩放模式、结束值）只烘焙一次。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleCurves {
+
+    /** 表的分段数，表长为 SIZE + 1（含终点） */
+    public static final int SIZE = 256;
+
+    /** 淡出曲线：归一化进度 -> 透明度 (0~1) */
+    final float[] fade = new float[SIZE + 1];
+
+    /** 缩放曲线：归一化进度 -> 半径倍数（乘以 baseRadius） */
+    final float[] scale = new float[SIZE + 1];
+
+    /** 运动曲线：归一化进度 -> 垂直位移倍数（乘以 verticalElement），Float/Rise 不使用 */
+    final float[] motion = new float[SIZE + 1];
+
+    private int mKind = -1;
+    private Particle.ScaleMode mScaleMode;
+    private float mEndValue;
+
+    /**
+     * 按样式烘焙曲线，参数与上次相同时直接返回
+     * @param kind      粒子类型，见 {@link ParticleBuffer#KIND_EXPLOSION} 等
+     * @param scaleMode 缩放模式
+     * @param endValue  动画结束值
+     */
+    void bake(int kind, Particle.ScaleMode scaleMode, float endValue) {
+        if (kind == mKind && scaleMode == mScaleMode && endValue == mEndValue) {
+            return;
+        }
+        mKind = kind;
+        mScaleMode = scaleMode;
+        mEndValue = endValue;
+
+        final boolean rise = kind == ParticleBuffer.KIND_RISE;
+        final float fadeStart = rise ? Particle.RISE_FADE_START_THRESHOLD : Particle.FADE_START_THRESHOLD;
+        final float fadeDuration = rise ? Particle.RISE_FADE_DURATION_RATIO : Particle.FADE_DURATION_RATIO;
+        final float scaleFactor = kind == ParticleBuffer.KIND_DROP || kind == ParticleBuffer.KIND_FLOAT ? 1f / 6f : 0.25f;
+
+        for (int i = 0; i <= SIZE; i++) {
+            float n = (float) i / SIZE;
+            float realValue = n * endValue;
+
+            fade[i] = Particle.calculateFadeAlpha(n, fadeStart, fadeDuration);
+
+            if (rise) {
+                // Rise 按移动量的 0.3 倍缩放，表以 progress / endValue 为下标
+                float s = Particle.calculateRadius(1f, realValue * 0.3f, scaleMode, scaleFactor);
+                scale[i] = s < 0 ? 0 : s;
+            } else {
+                scale[i] = Particle.calculateRadius(1f, n, scaleMode, scaleFactor);
+            }
+
+            // 爆炸为抛物线，其余为线性
+            motion[i] = kind == ParticleBuffer.KIND_EXPLOSION ? realValue * (realValue - 1) : realValue;
+        }
+    }
+
+    /**
+     * 线性插值查表
+     * @param table 曲线表，长度 SIZE + 1
+     * @param t     归一化进度，超出 [0, 1] 时取端点
+     * @return 曲线值
+     */
+    public static float sample(float[] table, float t) {
+        if (t <= 0) {
+            return table[0];
+        }
+        float position = t * SIZE;
+        int index = (int) position;
+        if (index >= SIZE) {
+            return table[SIZE];
+        }
+        float a = table[index];
+        return a + (table[index + 1] - a) * (position - index);
+    }
+}
@@ -0,0 +1,203 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 按采样网格从像素生成粒子
+ *              输入为截图的 ARGB 像素数组，不依赖 Bitmap，可在任意线程及普通 JVM 上执行
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleGenerator {
+
+    private ParticleGenerator() {
+    }
+
+    /**
+     * 在缓冲区中生成网格上的全部粒子。缓冲区需已按粒子数和样式 {@link ParticleBuffer#reset} 过；
+     * 透明度低于 {@link SamplingGrid#minAlpha} 的网格被剔除，保留的粒子从 0 开始连续排列，buffer.count 更新为生成数。
+     * 程序化模式（{@link ParticleBuffer#resetProcedural}）只写入颜色和网格编号，从 random 取一个种子供逐帧计算
+     * @param buffer             写入的粒子缓冲区
+     * @param pixels             截图像素（ARGB，按行排列）
+     * @param width              截图宽度
+     * @param height             截图高度
+     * @param grid               采样网格
+     * @param rect               截图区域在容器中的位置
+     * @param endValue           动画的结束值
+     * @param random             随机数
+     * @param horizontalMultiple 水平变化幅度
+     * @param verticalMultiple   垂直变化幅度
+     * @param startRandomness    起跑随机延迟系数
+     * @param endRandomness      结束随机提前系数
+     * @return 生成的粒子数（grid.count 减去剔除数）
+     */
+    public static int generate(ParticleBuffer buffer, int[] pixels, int width, int height, SamplingGrid grid,
+                               ParticleRect rect, float endValue, ParticleRandom random,
+                               float horizontalMultiple, float verticalMultiple,
+                               float startRandomness, float endRandomness) {
+        return generate(buffer, pixels, 0, width, width, height, grid, rect, endValue, random,
+                horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+    }
+
+    /**
+     * 从更大截图中的一块区域生成粒子（如批量粉碎时共用的父容器截图）
+     * @param offset 区域左上角在 pixels 中的下标
+     * @param stride 截图的行宽
+     * @param width  区域宽度
+     * @param height 区域高度
+     * @see #generate(ParticleBuffer, int[], int, int, SamplingGrid, ParticleRect, float, ParticleRandom, float, float, float, float)
+     */
+    public static int generate(ParticleBuffer buffer, int[] pixels, int offset, int stride, int width, int height,
+                               SamplingGrid grid, ParticleRect rect, float endValue, ParticleRandom random,
+                               float horizontalMultiple, float verticalMultiple,
+                               float startRandomness, float endRandomness) {
+        return generate(buffer, pixels, offset, stride, width, height, null, grid, rect, endValue, random,
+                horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+    }
+
+    /**
+     * 每个粒子的颜色取所在网格全部像素按 alpha 加权的平均值（含平均透明度），由积分图 O(1) 查询。
+     * 细线、文字不再因只取中心像素而闪烁或丢失，较粗的网格也能保留画面
+     * @param table 已按 grid.cellPixels 为行间隔 {@link SummedAreaTable#build 构建}的积分图
+     * @see #generate(ParticleBuffer, int[], int, int, SamplingGrid, ParticleRect, float, ParticleRandom, float, float, float, float)
+     */
+    public static int generate(ParticleBuffer buffer, SummedAreaTable table, SamplingGrid grid,
+                               ParticleRect rect, float endValue, ParticleRandom random,
+                               float horizontalMultiple, float verticalMultiple,
+                               float startRandomness, float endRandomness) {
+        return generate(buffer, null, 0, 0, table.getWidth(), table.getHeight(), table, grid, rect, endValue, random,
+                horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+    }
+
+    private static int generate(ParticleBuffer buffer, int[] pixels, int offset, int stride, int width, int height,
+                                SummedAreaTable table, SamplingGrid grid, ParticleRect rect, float endValue,
+                                ParticleRandom random, float horizontalMultiple, float verticalMultiple,
+                                float startRandomness, float endRandomness) {
+        final int step = grid.step;
+        final int radius = grid.radius;
+        final int cellPixels = grid.cellPixels;
+        final int srcWidth = grid.srcWidth;
+        final int srcHeight = grid.srcHeight;
+        final int col = srcWidth / step;
+        final int row = srcHeight / step;
+        // 抽稀：在 cells 个网格中均匀保留 count 个
+        final long cells = (long) row * col;
+        final long kept = grid.count;
+        final boolean scaled = cellPixels != step;
+        final int minAlpha = grid.minAlpha;
+        final boolean procedural = buffer.procedural;
+        if (procedural) {
+            buffer.params.set(random.nextLong(), grid, rect, endValue,
+                    horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+        }
+
+        int index = 0;
+        long cell = 0;
+        for (int i = 0; i < row; i++) {
+            for (int j = 0; j < col; j++, cell++) {
+                if (kept < cells && (cell + 1) * kept / cells == cell * kept / cells) {
+                    continue;
+                }
+                int x = j * step + radius;
+                int y = i * step + radius;
+                if (x >= srcWidth) x = srcWidth - 1;
+                if (y >= srcHeight) y = srcHeight - 1;
+
+                int color;
+                if (table != null) {
+                    color = areaColor(table, j * cellPixels, i * cellPixels, cellPixels);
+                } else if (scaled) {
+                    color = averageColor(pixels, offset, stride, width, height, j * cellPixels, i * cellPixels, cellPixels);
+                } else {
+                    color = pixels[offset + y * stride + x];
+                }
+                if ((color >>> 24) < minAlpha) {
+                    // 透明的网格不生成粒子，也不消耗随机数
+                    continue;
+                }
+                if (procedural) {
+                    buffer.color[index] = color;
+                    buffer.cell[index] = (int) cell;
+                    index++;
+                    continue;
+                }
+                int px = rect.left + x;
+                int py = rect.top + y;
+
+                switch (buffer.kind) {
+                    case ParticleBuffer.KIND_DROP:
+                        DropParticle.generate(buffer, index, px, py, color, radius, rect, endValue, random, horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+                        break;
+                    case ParticleBuffer.KIND_FLOAT:
+                        FloatParticle.generate(buffer, index, px, py, color, radius, rect, endValue, random, horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+                        break;
+                    case ParticleBuffer.KIND_RISE:
+                        RiseParticle.generate(buffer, index, px, py, color, radius, rect, endValue, random, horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+                        break;
+                    case ParticleBuffer.KIND_EXPLOSION:
+                    default:
+                        ExplosionParticle.generate(buffer, index, color, radius, rect, endValue, random, horizontalMultiple, verticalMultiple, startRandomness, endRandomness);
+                        break;
+                }
+                index++;
+            }
+        }
+        buffer.count = index;
+        return index;
+    }
+
+    /**
+     * 由积分图查询一个网格（size×size 像素，超出截图的部分裁掉）的平均颜色
+     */
+    static int areaColor(SummedAreaTable table, int left, int top, int size) {
+        final int width = table.getWidth();
+        final int height = table.getHeight();
+        if (left >= width) {
+            left = width - 1;
+        }
+        if (top >= height) {
+            // 上边界需落在积分图保存的行上
+            top = (height - 1) / size * size;
+        }
+        return table.average(left, top, Math.min(left + size, width), Math.min(top + size, height));
+    }
+
+    /**
+     * 计算缩小截图中一个网格（size×size 像素）的平均颜色，与 {@link SummedAreaTable#average} 相同：
+     * alpha 取平均透明度，r、g、b 先乘以 alpha 再除以 alpha 之和，透明像素的颜色不会把边缘染暗
+     * @return 平均颜色，网格完全透明时为 0
+     */
+    static int averageColor(int[] pixels, int offset, int stride, int width, int height, int left, int top, int size) {
+        int right = Math.min(left + size, width);
+        int bottom = Math.min(top + size, height);
+        if (left >= right || top >= bottom) {
+            return pixels[offset + Math.min(top, height - 1) * stride + Math.min(left, width - 1)];
+        }
+        if (size == 1) {
+            return pixels[offset + top * stride + left];
+        }
+        // 预乘后的通道和可达 255 * 255 * 像素数，用 long 累加，网格大小不受限制
+        long a = 0, r = 0, g = 0, b = 0;
+        for (int y = top; y < bottom; y++) {
+            int rowStart = offset + y * stride;
+            for (int x = left; x < right; x++) {
+                int c = pixels[rowStart + x];
+                int alpha = c >>> 24;
+                a += alpha;
+                r += ((c >> 16) & 0xFF) * alpha;
+                g += ((c >> 8) & 0xFF) * alpha;
+                b += (c & 0xFF) * alpha;
+            }
+        }
+        if (a <= 0) {
+            return 0;
+        }
+        long n = (long) (right - left) * (bottom - top);
+        int alpha = (int) ((a + (n >> 1)) / n);
+        long half = a >> 1;
+        int red = (int) ((r + half) / a);
+        int green = (int) ((g + half) / a);
+        int blue = (int) ((b + half) / a);
+        return (alpha << 24) | (red << 16) | (green << 8) | blue;
+    }
+}
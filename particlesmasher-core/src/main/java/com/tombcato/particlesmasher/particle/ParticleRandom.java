@@ -0,0 +1,45 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 粒子生成使用的随机数（SplitMix64）
+ *              单个 long 状态，final 类、方法可内联，比 java.util.Random 的虚调用和 CAS 更新更快。
+ *              相同种子产生相同序列，用于在相同的 View 与参数下复现完全一致的粒子。非线程安全。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleRandom {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** float 的 24 位尾数精度 */
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    private long mState;
+
+    public ParticleRandom(long seed) {
+        mState = seed;
+    }
+
+    /**
+     * 重新设置种子，之后的序列与 new ParticleRandom(seed) 相同
+     */
+    public void setSeed(long seed) {
+        mState = seed;
+    }
+
+    public long nextLong() {
+        long z = (mState += GOLDEN_GAMMA);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return [0, 1) 之间均匀分布的 float
+     */
+    public float nextFloat() {
+        return (nextLong() >>> 40) * FLOAT_UNIT;
+    }
+}
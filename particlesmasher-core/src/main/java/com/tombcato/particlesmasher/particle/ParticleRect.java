@@ -0,0 +1,53 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 整数矩形
+ *              粒子计算使用的区域，字段与方法和 android.graphics.Rect 对应，
+ *              使粒子模块不依赖 Android，可在普通 JVM 上运行与测试
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ParticleRect {
+
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    public ParticleRect() {
+    }
+
+    public ParticleRect(int left, int top, int right, int bottom) {
+        set(left, top, right, bottom);
+    }
+
+    public void set(int left, int top, int right, int bottom) {
+        this.left = left;
+        this.top = top;
+        this.right = right;
+        this.bottom = bottom;
+    }
+
+    public int width() {
+        return right - left;
+    }
+
+    public int height() {
+        return bottom - top;
+    }
+
+    public int centerX() {
+        return (left + right) >> 1;
+    }
+
+    public int centerY() {
+        return (top + bottom) >> 1;
+    }
+
+    @Override
+    public String toString() {
+        return "ParticleRect(" + left + ", " + top + " - " + right + ", " + bottom + ")";
+    }
+}
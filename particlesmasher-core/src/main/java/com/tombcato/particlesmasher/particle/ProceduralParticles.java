@@ -0,0 +1,276 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 程序化粒子
+ *              粒子只保存颜色和所在网格编号（{@link ParticleBuffer#cell}），半径、速度、起止时间、初始位置等随机参数
+ *              每帧由 (seed, cell) 的整数哈希（SplitMix64 混合函数）重新计算，不依赖上一帧，任意进度都可直接求值。
+ *              公式与四种样式的 generate/advance 相同，只是随机数由生成时的顺序序列改为按网格编号哈希；
+ *              哈希以网格编号而非粒子序号为键，抽稀或剔除其他网格不会改变已有粒子的参数。
+ *              本类保存一次生成的公共参数，由 {@link ParticleGenerator} 在生成时写入。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class ProceduralParticles {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** float 的 24 位尾数精度 */
+    private static final float FLOAT_UNIT = 0x1.0p-24f;
+
+    /** 每个网格占用的哈希序列长度（每次混合得到 2 个随机数） */
+    private static final int HASHES_PER_CELL = 4;
+
+    // ==================== 生成参数 ====================
+
+    long seed;                  // 本次生成的种子
+    ParticleRect rect;          // 截图区域在容器中的位置
+    int columns;                // 网格列数
+    int step;                   // 网格间距
+    int radius;                 // 粒子基础半径
+    int srcWidth;               // 截图区域宽度
+    int srcHeight;              // 截图区域高度
+    float endValue;             // 动画的结束值
+    float horizontalMultiple;   // 水平变化幅度
+    float verticalMultiple;     // 垂直变化幅度
+    float startRandomness;      // 起跑随机延迟系数
+    float endRandomness;        // 结束随机提前系数
+
+    /**
+     * 记录一次生成的公共参数，参数含义同 {@link ParticleGenerator#generate}
+     */
+    void set(long seed, SamplingGrid grid, ParticleRect rect, float endValue,
+             float horizontalMultiple, float verticalMultiple, float startRandomness, float endRandomness) {
+        this.seed = seed;
+        this.rect = rect;
+        this.columns = grid.srcWidth / grid.step;
+        this.step = grid.step;
+        this.radius = grid.radius;
+        this.srcWidth = grid.srcWidth;
+        this.srcHeight = grid.srcHeight;
+        this.endValue = endValue;
+        this.horizontalMultiple = horizontalMultiple;
+        this.verticalMultiple = verticalMultiple;
+        this.startRandomness = startRandomness;
+        this.endRandomness = endRandomness;
+    }
+
+    /**
+     * 网格的第 k 次哈希（SplitMix64 的输出函数），相同 (seed, cell, k) 总是得到相同结果
+     */
+    static long hash(long seed, int cell, int k) {
+        long z = seed + ((long) cell * HASHES_PER_CELL + k + 1) * GOLDEN_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** 哈希高 24 位对应的 [0, 1) 随机数 */
+    static float high(long hash) {
+        return (hash >>> 40) * FLOAT_UNIT;
+    }
+
+    /** 哈希低 24 位对应的 [0, 1) 随机数 */
+    static float low(long hash) {
+        return ((int) hash & 0xFFFFFF) * FLOAT_UNIT;
+    }
+
+    /**
+     * 网格中心（粒子原始位置）相对截图区域的 x，与 {@link ParticleGenerator} 的取点一致
+     */
+    private int cellX(int cell) {
+        int x = (cell % columns) * step + radius;
+        return x >= srcWidth ? srcWidth - 1 : x;
+    }
+
+    private int cellY(int cell) {
+        int y = (cell / columns) * step + radius;
+        return y >= srcHeight ? srcHeight - 1 : y;
+    }
+
+    /**
+     * 粒子的初始半径，与 advance 中的计算相同
+     */
+    float baseRadius(int kind, int cell) {
+        long h = hash(seed, cell, 0);
+        return baseRadius(kind, radius, low(h), high(h));
+    }
+
+    private static float baseRadius(int kind, int radius, float jitter, float nextFloat) {
+        switch (kind) {
+            case ParticleBuffer.KIND_EXPLOSION:
+                return Particle.calculateBaseRadius(radius, jitter, nextFloat, 1.4f, 0.8f);
+            case ParticleBuffer.KIND_RISE:
+                // Rise 粒子半径略有增大
+                return Particle.calculateBaseRadius(radius, jitter, nextFloat, 1.2f, 1.4f);
+            default:
+                // 下落和飘落的粒子，其半径很大概率大于初始设定的半径
+                return Particle.calculateBaseRadius(radius, jitter, nextFloat, 1.4f, 1.6f);
+        }
+    }
+
+    /**
+     * 计算缓冲区 [from, to) 区间内的粒子并写入 target，逻辑与各样式的 advance 一致。
+     * 每个粒子的参数都由哈希重新求出，结果只与动画值有关，target 指向后台数组时也无需从上一帧复制
+     */
+    static void advance(ParticleBuffer buffer, ParticleBuffer.Target target, int from, int to,
+                        float factor, float endValue) {
+        final ProceduralParticles params = buffer.params;
+        final ParticleRect rect = params.rect;
+        final long seed = params.seed;
+        final int kind = buffer.kind;
+        final int direction = buffer.direction;
+        final int[] cells = buffer.cell;
+        final float[] alpha = target.alpha;
+        final float[] cx = target.cx;
+        final float[] cy = target.cy;
+        final float[] radius = target.radius;
+        final float[] fade = buffer.curves.fade;
+        final float[] scale = buffer.curves.scale;
+        final float[] motion = buffer.curves.motion;
+        final float invEndValue = buffer.invEndValue;
+        final float raw = factor * invEndValue;
+        final float startScale = params.endValue * params.startRandomness;
+        final float endRandomness = params.endRandomness;
+        final float horizontalMultiple = params.horizontalMultiple;
+        final float verticalMultiple = params.verticalMultiple;
+        final int baseRadius = params.radius;
+        final float width = rect.width();
+        final float height = rect.height();
+        final int offsetX = rect.width() / 4;
+        final int offsetY = rect.height() / 4;
+        final boolean explosion = kind == ParticleBuffer.KIND_EXPLOSION;
+        final boolean rise = kind == ParticleBuffer.KIND_RISE;
+        // Float 任意方向、Rise 的左右上方向逐行/逐列启动；Rise 其余方向同时启动
+        final boolean triggered = kind == ParticleBuffer.KIND_FLOAT
+                || (rise && (direction == RiseParticle.DIRECTION_LEFT
+                || direction == RiseParticle.DIRECTION_RIGHT
+                || direction == RiseParticle.DIRECTION_TOP));
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        int visible = 0;
+
+        for (int i = from; i < to; i++) {
+            final int cell = cells[i];
+
+            // 先求起止时间，可见窗口外的粒子不再计算其余参数
+            long h = hash(seed, cell, 3);
+            float start = startScale * high(h);
+            float endFade = endRandomness * low(h);
+            if (raw < start ? explosion : raw > 1f - endFade) {
+                alpha[i] = 0;
+                continue;
+            }
+
+            h = hash(seed, cell, 0);
+            float nextFloat = high(h);
+            float r0 = baseRadius(kind, baseRadius, low(h), nextFloat);
+
+            float x0;
+            float y0;
+            int x = 0;
+            int y = 0;
+            if (explosion) {
+                h = hash(seed, cell, 2);
+                x0 = rect.centerX() + offsetX * (high(h) - 0.5f);
+                y0 = rect.centerY() + offsetY * (low(h) - 0.5f);
+            } else {
+                x = params.cellX(cell);
+                y = params.cellY(cell);
+                x0 = rect.left + x;
+                y0 = rect.top + y;
+            }
+
+            if (raw < start) {
+                // 尚未启动，停留在初始位置
+                alpha[i] = 1;
+                cx[i] = x0;
+                cy[i] = y0;
+                radius[i] = r0;
+            } else {
+                // 与保存模式 bake 的 invSpan 相同的运算顺序，两种模式结果一致
+                float normalization = (raw - start) * (1f / (1f - start - endFade));
+                float a = ParticleCurves.sample(fade, normalization);
+                alpha[i] = a;
+
+                h = hash(seed, cell, 1);
+                float horizontal = Particle.calculateHorizontalElement(rect, high(h), nextFloat, horizontalMultiple);
+                float vertical = Particle.calculateVerticalElement(rect, low(h), nextFloat, verticalMultiple);
+                float realValue = normalization * endValue;
+
+                if (explosion) {
+                    cx[i] = x0 + horizontal * realValue;
+                    cy[i] = y0 + vertical * ParticleCurves.sample(motion, normalization);
+                    radius[i] = r0 * ParticleCurves.sample(scale, normalization);
+                } else {
+                    float progress = realValue;
+                    if (triggered) {
+                        progress -= trigger(kind, direction, x / width, y / height);
+                    }
+                    if (!triggered || progress > 0) {
+                        if (rise) {
+                            cx[i] = x0 + horizontal * 0.5f * progress;
+                            cy[i] = y0 - vertical * progress;
+                        } else {
+                            cx[i] = x0 + horizontal * progress;
+                            cy[i] = y0 + vertical * progress;
+                        }
+                    } else {
+                        progress = 0;
+                        cx[i] = x0;
+                        cy[i] = y0;
+                    }
+                    radius[i] = r0 * ParticleCurves.sample(scale, rise ? progress * invEndValue : normalization);
+                }
+                if (a <= 0) {
+                    continue;
+                }
+            }
+
+            // 顺便累计包围盒，绘制时不再遍历
+            float px = cx[i];
+            float py = cy[i];
+            float r = radius[i];
+            if (px - r < left) left = px - r;
+            if (px + r > right) right = px + r;
+            if (py - r < top) top = py - r;
+            if (py + r > bottom) bottom = py + r;
+            visible++;
+        }
+        target.setBounds(left, top, right, bottom);
+        target.visibleCount = visible;
+    }
+
+    /**
+     * Float/Rise 逐行/逐列启动的位置比例，与各自 generate 中的 trigger 相同
+     * @param left 粒子原始位置在截图区域中的横向比例
+     * @param top  粒子原始位置在截图区域中的纵向比例
+     */
+    private static float trigger(int kind, int direction, float left, float top) {
+        if (kind == ParticleBuffer.KIND_FLOAT) {
+            switch (direction) {
+                case FloatParticle.ORIENTATION_LEFT:
+                    return left;
+                case FloatParticle.ORIENTATION_RIGHT:
+                    return 1 - left;
+                case FloatParticle.ORIENTATION_BOTTOM:
+                    return 1 - top;
+                case FloatParticle.ORIENTATION_TOP:
+                default:
+                    return top;
+            }
+        }
+        switch (direction) {
+            case RiseParticle.DIRECTION_LEFT:
+                return left;
+            case RiseParticle.DIRECTION_RIGHT:
+                return 1 - left;
+            default:
+                return top;
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.tombcato.particlesmasher.particle;
+
+import java.util.Random;
+
+/**
+ * 向上飘散粒子
+ * 支持从左往右、从右往左、同时向上的飘散效果
+ */
+public class RiseParticle extends Particle {
+
+    // 方向常量
+    public static final int DIRECTION_ALL = 0;      // 同时向上（默认）
+    public static final int DIRECTION_LEFT = 1;     // 从左往右逐列向上
+    public static final int DIRECTION_RIGHT = 2;    // 从右往左逐列向上
+    public static final int DIRECTION_TOP = 3;      // 从上到下逐行向上
+
+    private int direction = DIRECTION_ALL;
+    private float left;  // 粒子在 View 中的水平位置比例 (0~1)
+    private float top;   // 粒子在 View 中的垂直位置比例 (0~1)
+
+    /**
+     * 生成向上飘散的粒子
+     * @param direction          方向
+     * @param x                  粒子在图片中的位置 x
+     * @param y                  粒子在图片中的位置 y
+     * @param color              粒子颜色
+     * @param radius             粒子的半径
+     * @param rect               View区域的矩形
+     * @param endValue           动画的结束值
+     * @param random             随机数
+     * @param horizontalMultiple 水平变化幅度
+     * @param verticalMultiple   垂直变化幅度（向上移动的距离）
+     * @param startRandomness    起跑随机延迟系数
+     * @param endRandomness      结束随机提前系数
+     * @param scaleMode          缩放模式
+     */
+    public RiseParticle(int direction, int x, int y, int color, int radius, ParticleRect rect, float endValue, 
+                        Random random, float horizontalMultiple, float verticalMultiple, 
+                        float startRandomness, float endRandomness, ScaleMode scaleMode) {
+
+        this.color = color;
+        this.baseAlpha = color >>> 24;
+        this.direction = direction;
+        this.scaleMode = scaleMode;
+        alpha = 1;
+
+        float nextFloat = random.nextFloat();
+
+        // Rise 粒子半径略有增大
+        baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.2f, 1.4f);
+        this.radius = baseRadius;
+
+        // 水平方向随机偏移（幅度较小）
+        horizontalElement = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple) * 0.5f;
+        // 垂直方向向上移动距离
+        verticalElement = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        baseCx = x;
+        baseCy = y;
+        cx = baseCx;
+        cy = baseCy;
+
+        // 计算粒子在 View 中的位置比例
+        left = (baseCx - rect.left) / (float) rect.width();
+        top = (baseCy - rect.top) / (float) rect.height();
+
+        startOffset = endValue * startRandomness * random.nextFloat();
+        endFadeOffset = endRandomness * random.nextFloat();
+    }
+
+    @Override
+    public void advance(float factor, float endValue) {
+        float normalization = factor / endValue;
+
+        if (normalization < startOffset) {
+            alpha = 1;
+            return;
+        }
+
+        if (normalization > 1f - endFadeOffset) {
+            alpha = 0;
+            return;
+        }
+        alpha = 1;
+
+        normalization = (normalization - startOffset) / (1f - startOffset - endFadeOffset);
+        
+        // Rise 使用不同的淡出阈值
+        alpha = calculateFadeAlpha(normalization, RISE_FADE_START_THRESHOLD, RISE_FADE_DURATION_RATIO);
+
+        float realValue = normalization * endValue;
+        float progress = 0;
+
+        // 根据方向决定粒子何时开始移动
+        switch (direction) {
+            case DIRECTION_LEFT:
+                if (realValue > left) {
+                    progress = realValue - left;
+                    cy = baseCy - verticalElement * progress;
+                    cx = baseCx + horizontalElement * progress;
+                }
+                break;
+            case DIRECTION_RIGHT:
+                if (realValue > (1 - left)) {
+                    progress = realValue - (1 - left);
+                    cy = baseCy - verticalElement * progress;
+                    cx = baseCx + horizontalElement * progress;
+                }
+                break;
+            case DIRECTION_TOP:
+                if (realValue > top) {
+                    progress = realValue - top;
+                    cy = baseCy - verticalElement * progress;
+                    cx = baseCx + horizontalElement * progress;
+                }
+                break;
+            default:
+                // 同时向上
+                progress = realValue;
+                cy = baseCy - verticalElement * realValue;
+                cx = baseCx + horizontalElement * realValue;
+                break;
+        }
+
+        // Rise 使用不同的缩放因子
+        radius = calculateRadius(baseRadius, progress * 0.3f, scaleMode, 0.25f);
+        if (radius < 0) radius = 0;
+    }
+
+    // ==================== ParticleBuffer 版本 ====================
+
+    /**
+     * 在缓冲区的 index 位置生成粒子，随机数消耗顺序与构造函数一致
+     * 方向取自 {@link ParticleBuffer#direction}
+     * @param x 粒子在图片中的位置 x
+     * @param y 粒子在图片中的位置 y
+     * 其余参数含义同构造函数
+     */
+    public static void generate(ParticleBuffer buffer, int index, int x, int y, int color, int radius, ParticleRect rect,
+                                float endValue, ParticleRandom random, float horizontalMultiple, float verticalMultiple,
+                                float startRandomness, float endRandomness) {
+        buffer.color[index] = color;
+        buffer.alpha[index] = 1;
+
+        float nextFloat = random.nextFloat();
+
+        // Rise 粒子半径略有增大
+        float baseRadius = calculateBaseRadius(radius, random.nextFloat(), nextFloat, 1.2f, 1.4f);
+        buffer.baseRadius[index] = baseRadius;
+        buffer.radius[index] = baseRadius;
+
+        buffer.horizontalElement[index] = calculateHorizontalElement(rect, random.nextFloat(), nextFloat, horizontalMultiple) * 0.5f;
+        buffer.verticalElement[index] = calculateVerticalElement(rect, random.nextFloat(), nextFloat, verticalMultiple);
+
+        buffer.baseCx[index] = x;
+        buffer.baseCy[index] = y;
+        buffer.cx[index] = x;
+        buffer.cy[index] = y;
+
+        // 逐列/逐行启动的位置比例；DIRECTION_ALL 为 0，即立即启动
+        float left = ((float) x - rect.left) / (float) rect.width();
+        float top = ((float) y - rect.top) / (float) rect.height();
+        switch (buffer.direction) {
+            case DIRECTION_LEFT:
+                buffer.trigger[index] = left;
+                break;
+            case DIRECTION_RIGHT:
+                buffer.trigger[index] = 1 - left;
+                break;
+            case DIRECTION_TOP:
+                buffer.trigger[index] = top;
+                break;
+            default:
+                buffer.trigger[index] = 0;
+                break;
+        }
+
+        buffer.startOffset[index] = endValue * startRandomness * random.nextFloat();
+        buffer.endFadeOffset[index] = endRandomness * random.nextFloat();
+    }
+
+    /**
+     * 计算缓冲区 [from, to) 区间内的粒子并写入 target，逻辑与 {@link #advance(float, float)} 一致；
+     * 淡出和缩放取自 {@link ParticleBuffer#curves} 的预烘焙表（缩放表以 progress / endValue 为下标）。
+     * target 指向后台数组时，本帧未更新的属性从缓冲区（上一帧）复制，结果与原地更新完全相同
+     */
+    public static void advance(ParticleBuffer buffer, ParticleBuffer.Target target, int from, int to,
+                               float factor, float endValue) {
+        final float[] prevCx = buffer.cx;
+        final float[] prevCy = buffer.cy;
+        final float[] prevRadius = buffer.radius;
+        final float[] alpha = target.alpha;
+        final float[] cx = target.cx;
+        final float[] cy = target.cy;
+        final float[] radius = target.radius;
+        final boolean copy = cx != prevCx;
+        final float[] startOffset = buffer.startOffset;
+        final float[] visibleEnd = buffer.visibleEnd;
+        final float[] invSpan = buffer.invSpan;
+        final float[] trigger = buffer.trigger;
+        final float[] fade = buffer.curves.fade;
+        final float[] scale = buffer.curves.scale;
+        final float invEndValue = buffer.invEndValue;
+        final boolean all = buffer.direction != DIRECTION_LEFT
+                && buffer.direction != DIRECTION_RIGHT
+                && buffer.direction != DIRECTION_TOP;
+        final float raw = factor * invEndValue;
+
+        float left = Float.MAX_VALUE;
+        float top = Float.MAX_VALUE;
+        float right = -Float.MAX_VALUE;
+        float bottom = -Float.MAX_VALUE;
+        int visible = 0;
+
+        for (int i = from; i < to; i++) {
+            float start = startOffset[i];
+            if (raw < start) {
+                // 尚未启动，停留在初始位置
+                alpha[i] = 1;
+                if (copy) {
+                    cx[i] = prevCx[i];
+                    cy[i] = prevCy[i];
+                    radius[i] = prevRadius[i];
+                }
+            } else if (raw > visibleEnd[i]) {
+                alpha[i] = 0;
+                if (copy) {
+                    cx[i] = prevCx[i];
+                    cy[i] = prevCy[i];
+                    radius[i] = prevRadius[i];
+                }
+                continue;
+            } else {
+                float normalization = (raw - start) * invSpan[i];
+                float a = ParticleCurves.sample(fade, normalization);
+                alpha[i] = a;
+
+                float progress = normalization * endValue - trigger[i];
+                if (all || progress > 0) {
+                    cy[i] = buffer.baseCy[i] - buffer.verticalElement[i] * progress;
+                    cx[i] = buffer.baseCx[i] + buffer.horizontalElement[i] * progress;
+                } else {
+                    progress = 0;
+                    if (copy) {
+                        cx[i] = prevCx[i];
+                        cy[i] = prevCy[i];
+                    }
+                }
+                radius[i] = buffer.baseRadius[i] * ParticleCurves.sample(scale, progress * invEndValue);
+                if (a <= 0) {
+                    continue;
+                }
+            }
+
+            // 顺便累计包围盒，绘制时不再遍历
+            float x = cx[i];
+            float y = cy[i];
+            float r = radius[i];
+            if (x - r < left) left = x - r;
+            if (x + r > right) right = x + r;
+            if (y - r < top) top = y - r;
+            if (y + r > bottom) bottom = y + r;
+            visible++;
+        }
+        target.setBounds(left, top, right, bottom);
+        target.visibleCount = visible;
+    }
+}
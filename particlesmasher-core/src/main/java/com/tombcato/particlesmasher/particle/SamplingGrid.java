@@ -0,0 +1,43 @@
+package com.tombcato.particlesmasher.particle;
+
+/**
+ * <pre>
+ *     desc   : 采样网格
+ *              截图区域按 step 划分网格，每个网格生成一个粒子；
+ *              count 小于网格数时均匀抽稀，cellPixels 小于 step 时截图已按比例缩小；
+ *              取色后透明度低于 minAlpha 的网格不生成粒子，其余粒子在缓冲区中连续排列
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class SamplingGrid {
+
+    public final int srcWidth;         // 截图区域在原始分辨率下的宽度
+    public final int srcHeight;        // 截图区域在原始分辨率下的高度
+    public final int step;             // 原始分辨率下的网格间距
+    public final int radius;           // 粒子基础半径
+    public final int cellPixels;       // 图片中每个网格每边的像素数，等于 step 时表示原始分辨率
+    public final int count;            // 生成的粒子数上限（小于网格数时均匀抽稀）
+    public final int minAlpha;         // 透明度低于该值（0~255）的网格不生成粒子，0 表示全部保留
+
+    public SamplingGrid(int srcWidth, int srcHeight, int step, int radius, int cellPixels, int count) {
+        this(srcWidth, srcHeight, step, radius, cellPixels, count, 0);
+    }
+
+    public SamplingGrid(int srcWidth, int srcHeight, int step, int radius, int cellPixels, int count, int minAlpha) {
+        this.srcWidth = srcWidth;
+        this.srcHeight = srcHeight;
+        this.step = step;
+        this.radius = radius;
+        this.cellPixels = cellPixels;
+        this.count = count;
+        this.minAlpha = minAlpha;
+    }
+
+    /**
+     * 网格总数（抽稀前）
+     */
+    public int cells() {
+        return (srcWidth / step) * (srcHeight / step);
+    }
+}
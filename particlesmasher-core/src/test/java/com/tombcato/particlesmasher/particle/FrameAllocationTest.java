@@ -0,0 +1,123 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 逐帧路径零分配：粒子推进（含包围盒与可见数）、双缓冲推进与交换、分桶在预热后不得分配任何对象
+ */
+public class FrameAllocationTest {
+
+    private static final int WARMUP_FRAMES = 2_000;
+    private static final int FRAMES = 500;
+    private static final int COUNT = 4_096;
+    private static final float END_VALUE = 1.5f;
+
+    private static final int[] KINDS = {
+            ParticleBuffer.KIND_EXPLOSION,
+            ParticleBuffer.KIND_DROP,
+            ParticleBuffer.KIND_FLOAT,
+            ParticleBuffer.KIND_RISE,
+    };
+
+    @Test
+    public void advance_doesNotAllocate() {
+        for (int kind : KINDS) {
+            ParticleBuffer buffer = createBuffer(kind);
+            Frame frame = factor -> buffer.advance(factor, END_VALUE);
+            assertEquals("kind " + kind, 0, allocatedBytes(frame));
+        }
+    }
+
+    @Test
+    public void backBufferAdvance_doesNotAllocate() {
+        for (int kind : KINDS) {
+            ParticleBuffer buffer = createBuffer(kind);
+            ParticleBuffer.Target first = new ParticleBuffer.Target();
+            ParticleBuffer.Target second = new ParticleBuffer.Target();
+            // 与多线程推进相同的流程：分两段写入后台数组，交换后合并包围盒
+            Frame frame = factor -> {
+                int half = buffer.count / 2;
+                buffer.bindBack(first);
+                buffer.bindBack(second);
+                buffer.advance(first, 0, half, factor, END_VALUE);
+                buffer.advance(second, half, buffer.count, factor, END_VALUE);
+                buffer.swapBuffers();
+                buffer.resetBounds();
+                buffer.unionBounds(first);
+                buffer.unionBounds(second);
+            };
+            assertEquals("kind " + kind, 0, allocatedBytes(frame));
+        }
+    }
+
+    @Test
+    public void bucket_doesNotAllocate() {
+        ParticleBuffer buffer = createBuffer(ParticleBuffer.KIND_EXPLOSION);
+        ParticleBuckets buckets = new ParticleBuckets();
+        buckets.prepare(buffer);
+        Frame frame = factor -> {
+            buffer.advance(factor, END_VALUE);
+            buckets.bucket(buffer, 1);
+        };
+        assertEquals(0, allocatedBytes(frame));
+    }
+
+    // ==================== 工具方法 ====================
+
+    private interface Frame {
+        void run(float factor);
+    }
+
+    private static ParticleBuffer createBuffer(int kind) {
+        int side = (int) Math.ceil(Math.sqrt(COUNT));
+        int step = 4;
+        int size = side * step;
+        int[] pixels = new int[size * size];
+        ParticleRandom random = new ParticleRandom(kind);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | (int) random.nextLong();
+        }
+        ParticleBuffer buffer = new ParticleBuffer(COUNT);
+        buffer.reset(COUNT, kind, RiseParticle.DIRECTION_LEFT, Particle.ScaleMode.SCALE_UP);
+        ParticleGenerator.generate(buffer, pixels, size, size, new SamplingGrid(size, size, step, 2, step, COUNT),
+                new ParticleRect(0, 0, size, size), END_VALUE, random, 3, 4, 0.1f, 0.4f);
+        buffer.bake(END_VALUE);
+        return buffer;
+    }
+
+    /**
+     * 预热后运行 {@link #FRAMES} 帧（动画值覆盖整个动画并来回往复），返回期间当前线程分配的字节数
+     */
+    private static long allocatedBytes(Frame frame) {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame.run(factor(i));
+        }
+        // 测量本身的开销（通常为 0）
+        long calibration = threads.getCurrentThreadAllocatedBytes();
+        calibration = threads.getCurrentThreadAllocatedBytes() - calibration;
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            frame.run(factor(i));
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before - calibration;
+    }
+
+    private static float factor(int frame) {
+        int period = 120;
+        int phase = frame % (period * 2);
+        float t = phase < period ? phase : period * 2 - phase;
+        return END_VALUE * t / period;
+    }
+}
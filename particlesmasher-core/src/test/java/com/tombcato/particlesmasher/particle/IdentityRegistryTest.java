@@ -0,0 +1,145 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 身份登记表：按 == 区分 key，删除回移后探测链上的其余 key 仍可查到，遍历保持加入顺序
+ */
+public class IdentityRegistryTest {
+
+    @Test
+    public void equalKeys_areDistinct() {
+        IdentityRegistry<String, Integer> registry = new IdentityRegistry<>();
+        String first = new String("view");
+        String second = new String("view");
+        registry.put(first, 1);
+        registry.put(second, 2);
+        assertEquals(2, registry.size());
+        assertEquals(Integer.valueOf(1), registry.get(first));
+        assertEquals(Integer.valueOf(2), registry.get(second));
+        assertNull(registry.get("view"));
+    }
+
+    @Test
+    public void put_replacesAndMovesToEnd() {
+        IdentityRegistry<Object, String> registry = new IdentityRegistry<>();
+        Object a = new Object();
+        Object b = new Object();
+        registry.put(a, "a1");
+        registry.put(b, "b");
+        assertEquals("a1", registry.put(a, "a2"));
+        assertEquals(2, registry.size());
+
+        String[] values = new String[2];
+        assertEquals(2, registry.copyValues(values));
+        assertEquals("b", values[0]);
+        assertEquals("a2", values[1]);
+    }
+
+    @Test
+    public void removeKeyValue_onlyMatchingValue() {
+        IdentityRegistry<Object, String> registry = new IdentityRegistry<>();
+        Object key = new Object();
+        String value = new String("v");
+        registry.put(key, value);
+        assertFalse(registry.remove(key, new String("v")));
+        assertTrue(registry.containsKey(key));
+        assertTrue(registry.remove(key, value));
+        assertTrue(registry.isEmpty());
+    }
+
+    /**
+     * 少量 key 反复加入移除：哈希表保持最小尺寸，探测链频繁跨过表尾回绕，
+     * 每次删除回移后所有仍登记的 key 都必须可查到、已移除的 key 都查不到
+     */
+    @Test
+    public void backwardShiftDelete_keepsProbeChainsReachable() {
+        runAgainstReference(12, 20_000, 11);
+    }
+
+    /**
+     * 大量 key：表多次扩容，稠密数组多次压紧
+     */
+    @Test
+    public void manyKeys_matchReference() {
+        runAgainstReference(2_000, 8_000, 5);
+    }
+
+    @Test
+    public void clear_removesEverything() {
+        IdentityRegistry<Object, Object> registry = new IdentityRegistry<>();
+        Object[] keys = new Object[100];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = new Object();
+            registry.put(keys[i], keys[i]);
+        }
+        registry.clear();
+        assertEquals(0, registry.size());
+        for (Object key : keys) {
+            assertFalse(registry.containsKey(key));
+        }
+        registry.put(keys[0], keys[0]);
+        assertSame(keys[0], registry.get(keys[0]));
+    }
+
+    // ==================== 工具方法 ====================
+
+    /**
+     * 随机加入 / 移除，并与 IdentityHashMap + 加入顺序列表对照
+     * @param keyCount 可用的 key 数
+     * @param steps    操作次数
+     * @param seed     随机种子
+     */
+    private static void runAgainstReference(int keyCount, int steps, long seed) {
+        IdentityRegistry<Object, Integer> registry = new IdentityRegistry<>();
+        IdentityHashMap<Object, Integer> reference = new IdentityHashMap<>();
+        ArrayList<Object> order = new ArrayList<>();
+        Object[] keys = new Object[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = new Object();
+        }
+        ParticleRandom random = new ParticleRandom(seed);
+
+        for (int step = 0; step < steps; step++) {
+            Object key = keys[(int) (random.nextFloat() * keyCount)];
+            String at = "step " + step;
+            if (random.nextFloat() < 0.5f) {
+                Integer value = step;
+                assertEquals(at, reference.put(key, value), registry.put(key, value));
+                order.remove(key);
+                order.add(key);
+            } else {
+                assertEquals(at, reference.remove(key), registry.remove(key));
+                order.remove(key);
+            }
+            assertEquals(at, reference.size(), registry.size());
+            if (keyCount <= 64 || step % 100 == 0) {
+                assertConsistent(at, registry, reference, order, keys);
+            }
+        }
+        assertConsistent("end", registry, reference, order, keys);
+    }
+
+    private static void assertConsistent(String at, IdentityRegistry<Object, Integer> registry,
+                                         IdentityHashMap<Object, Integer> reference, ArrayList<Object> order,
+                                         Object[] keys) {
+        for (Object key : keys) {
+            assertEquals(at, reference.containsKey(key), registry.containsKey(key));
+            assertEquals(at, reference.get(key), registry.get(key));
+        }
+        Integer[] values = new Integer[registry.size()];
+        assertEquals(at, order.size(), registry.copyValues(values));
+        for (int i = 0; i < values.length; i++) {
+            assertSame(at, reference.get(order.get(i)), values[i]);
+        }
+    }
+}
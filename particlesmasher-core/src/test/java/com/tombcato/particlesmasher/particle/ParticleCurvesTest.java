@@ -0,0 +1,115 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 曲线查找表：线性插值查表与解析公式的误差在分段线性近似的上限内
+ */
+public class ParticleCurvesTest {
+
+    private static final float END_VALUE = 1.5f;
+
+    /** 查询点数，远多于表的分段数，覆盖每段内部 */
+    private static final int SAMPLES = 10_000;
+
+    /**
+     * 淡出曲线在淡出起点有折角，线性插值在折角所在的一段内误差最大：斜率 × 段长 / 4
+     */
+    private static final float FADE_TOLERANCE =
+            1f / Particle.FADE_DURATION_RATIO / ParticleCurves.SIZE / 4 + 1e-5f;
+
+    /** 缩放为线性，运动至多为二次（误差不超过 段长² × |f''| / 8，约 1e-5），其余留给浮点舍入 */
+    private static final float CURVE_TOLERANCE = 1e-4f;
+
+    private static final int[] KINDS = {
+            ParticleBuffer.KIND_EXPLOSION,
+            ParticleBuffer.KIND_DROP,
+            ParticleBuffer.KIND_FLOAT,
+            ParticleBuffer.KIND_RISE,
+    };
+
+    @Test
+    public void sample_matchesAnalyticCurves() {
+        for (int kind : KINDS) {
+            for (Particle.ScaleMode scaleMode : Particle.ScaleMode.values()) {
+                String name = "kind " + kind + " " + scaleMode;
+                ParticleCurves curves = new ParticleCurves();
+                curves.bake(kind, scaleMode, END_VALUE);
+                float fadeError = 0;
+                float scaleError = 0;
+                float motionError = 0;
+                for (int i = 0; i <= SAMPLES; i++) {
+                    float t = (float) i / SAMPLES;
+                    fadeError = Math.max(fadeError, Math.abs(ParticleCurves.sample(curves.fade, t) - fade(kind, t)));
+                    scaleError = Math.max(scaleError,
+                            Math.abs(ParticleCurves.sample(curves.scale, t) - scale(kind, scaleMode, t)));
+                    motionError = Math.max(motionError, Math.abs(ParticleCurves.sample(curves.motion, t) - motion(kind, t)));
+                }
+                assertEquals(name + " fade", 0, fadeError, FADE_TOLERANCE);
+                assertEquals(name + " scale", 0, scaleError, CURVE_TOLERANCE);
+                assertEquals(name + " motion", 0, motionError, CURVE_TOLERANCE);
+            }
+        }
+    }
+
+    /**
+     * 表项上（t = i / SIZE）与公式完全一致
+     */
+    @Test
+    public void sample_exactAtTableEntries() {
+        ParticleCurves curves = new ParticleCurves();
+        curves.bake(ParticleBuffer.KIND_EXPLOSION, Particle.ScaleMode.SCALE_DOWN, END_VALUE);
+        for (int i = 0; i <= ParticleCurves.SIZE; i++) {
+            float t = (float) i / ParticleCurves.SIZE;
+            assertEquals("entry " + i, fade(ParticleBuffer.KIND_EXPLOSION, t), ParticleCurves.sample(curves.fade, t), 0f);
+        }
+    }
+
+    @Test
+    public void sample_clampsOutsideUnitInterval() {
+        ParticleCurves curves = new ParticleCurves();
+        curves.bake(ParticleBuffer.KIND_DROP, Particle.ScaleMode.SCALE_UP, END_VALUE);
+        assertEquals(curves.scale[0], ParticleCurves.sample(curves.scale, -0.5f), 0f);
+        assertEquals(curves.scale[ParticleCurves.SIZE], ParticleCurves.sample(curves.scale, 1f), 0f);
+        assertEquals(curves.scale[ParticleCurves.SIZE], ParticleCurves.sample(curves.scale, 7f), 0f);
+    }
+
+    /**
+     * 参数不变时不重新烘焙，参数变化时重新烘焙
+     */
+    @Test
+    public void bake_skipsUnchangedParameters() {
+        ParticleCurves curves = new ParticleCurves();
+        curves.bake(ParticleBuffer.KIND_FLOAT, Particle.ScaleMode.SCALE_DOWN, END_VALUE);
+        float last = curves.scale[ParticleCurves.SIZE];
+        curves.scale[ParticleCurves.SIZE] = -1;
+        curves.bake(ParticleBuffer.KIND_FLOAT, Particle.ScaleMode.SCALE_DOWN, END_VALUE);
+        assertEquals(-1, curves.scale[ParticleCurves.SIZE], 0f);
+        curves.bake(ParticleBuffer.KIND_FLOAT, Particle.ScaleMode.SCALE_DOWN, 2f);
+        assertEquals(last, curves.scale[ParticleCurves.SIZE], 0f);
+    }
+
+    // ==================== 解析公式（与各样式逐帧计算的原始公式相同） ====================
+
+    private static float fade(int kind, float t) {
+        if (kind == ParticleBuffer.KIND_RISE) {
+            return Particle.calculateFadeAlpha(t, Particle.RISE_FADE_START_THRESHOLD, Particle.RISE_FADE_DURATION_RATIO);
+        }
+        return Particle.calculateFadeAlpha(t, Particle.FADE_START_THRESHOLD, Particle.FADE_DURATION_RATIO);
+    }
+
+    private static float scale(int kind, Particle.ScaleMode scaleMode, float t) {
+        float scaleFactor = kind == ParticleBuffer.KIND_DROP || kind == ParticleBuffer.KIND_FLOAT ? 1f / 6f : 0.25f;
+        if (kind == ParticleBuffer.KIND_RISE) {
+            return Math.max(0, Particle.calculateRadius(1f, t * END_VALUE * 0.3f, scaleMode, scaleFactor));
+        }
+        return Particle.calculateRadius(1f, t, scaleMode, scaleFactor);
+    }
+
+    private static float motion(int kind, float t) {
+        float realValue = t * END_VALUE;
+        return kind == ParticleBuffer.KIND_EXPLOSION ? realValue * (realValue - 1) : realValue;
+    }
+}
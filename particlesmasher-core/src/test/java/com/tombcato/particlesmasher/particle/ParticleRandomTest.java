@@ -0,0 +1,77 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 随机数：相同种子复现相同序列，输出与 SplitMix64 参考值一致
+ */
+public class ParticleRandomTest {
+
+    private static final int LENGTH = 10_000;
+
+    @Test
+    public void sameSeed_reproducesSequence() {
+        ParticleRandom first = new ParticleRandom(42);
+        ParticleRandom second = new ParticleRandom(42);
+        for (int i = 0; i < LENGTH; i++) {
+            assertEquals("index " + i, first.nextLong(), second.nextLong());
+            assertEquals("index " + i, first.nextFloat(), second.nextFloat(), 0f);
+        }
+    }
+
+    @Test
+    public void setSeed_restartsSequence() {
+        ParticleRandom random = new ParticleRandom(7);
+        long[] expected = new long[16];
+        for (int i = 0; i < expected.length; i++) {
+            expected[i] = random.nextLong();
+        }
+        random.setSeed(7);
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals("index " + i, expected[i], random.nextLong());
+        }
+    }
+
+    @Test
+    public void differentSeeds_differ() {
+        ParticleRandom first = new ParticleRandom(1);
+        ParticleRandom second = new ParticleRandom(2);
+        int same = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            if (first.nextLong() == second.nextLong()) {
+                same++;
+            }
+        }
+        assertEquals(0, same);
+    }
+
+    /**
+     * 种子 0 时 SplitMix64 的前几个输出（参考实现的公开测试向量）
+     */
+    @Test
+    public void nextLong_matchesSplitMix64() {
+        ParticleRandom random = new ParticleRandom(0);
+        assertEquals(0xE220A8397B1DCDAFL, random.nextLong());
+        assertEquals(0x6E789E6AA1B965F4L, random.nextLong());
+        assertEquals(0x06C45D188009454FL, random.nextLong());
+    }
+
+    @Test
+    public void nextFloat_inUnitInterval() {
+        ParticleRandom random = new ParticleRandom(3);
+        float min = 1;
+        float max = 0;
+        for (int i = 0; i < LENGTH; i++) {
+            float value = random.nextFloat();
+            assertTrue("value " + value, value >= 0 && value < 1);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        // 分布覆盖整个区间
+        assertTrue(min < 0.01f);
+        assertTrue(max > 0.99f);
+    }
+}
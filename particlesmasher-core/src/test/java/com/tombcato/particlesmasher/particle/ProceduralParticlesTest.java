@@ -0,0 +1,248 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 程序化粒子：与保存模式逐帧等价，并能走完各绘制方式的准备与逐帧路径
+ */
+public class ProceduralParticlesTest {
+
+    private static final int WIDTH = 97;
+    private static final int HEIGHT = 63;
+    private static final int STEP = 4;
+    private static final int RADIUS = 2;
+    private static final float END_VALUE = 1.5f;
+    private static final float HORIZONTAL_MULTIPLE = 1.2f;
+    private static final float VERTICAL_MULTIPLE = 0.8f;
+    private static final float START_RANDOMNESS = 0.4f;
+    private static final float END_RANDOMNESS = 0.7f;
+    private static final int FRAMES = 300;
+    /** 两种模式的运算顺序相同，结果应逐位一致 */
+    private static final float TOLERANCE = 0f;
+
+    /** {粒子类型, 方向}：覆盖全部样式与方向 */
+    private static final int[][] STYLES = {
+            {ParticleBuffer.KIND_EXPLOSION, 0},
+            {ParticleBuffer.KIND_DROP, 0},
+            {ParticleBuffer.KIND_FLOAT, FloatParticle.ORIENTATION_LEFT},
+            {ParticleBuffer.KIND_FLOAT, FloatParticle.ORIENTATION_RIGHT},
+            {ParticleBuffer.KIND_FLOAT, FloatParticle.ORIENTATION_TOP},
+            {ParticleBuffer.KIND_FLOAT, FloatParticle.ORIENTATION_BOTTOM},
+            {ParticleBuffer.KIND_RISE, RiseParticle.DIRECTION_ALL},
+            {ParticleBuffer.KIND_RISE, RiseParticle.DIRECTION_LEFT},
+            {ParticleBuffer.KIND_RISE, RiseParticle.DIRECTION_RIGHT},
+            {ParticleBuffer.KIND_RISE, RiseParticle.DIRECTION_TOP},
+    };
+
+    private final ParticleRect mRect = new ParticleRect(10, 20, 10 + WIDTH, 20 + HEIGHT);
+    private final SamplingGrid mGrid = new SamplingGrid(WIDTH, HEIGHT, STEP, RADIUS, STEP, 300, 1);
+    private final int[] mPixels = createPixels();
+
+    @Test
+    public void resetProcedural_releasesStoredAttributes() {
+        ParticleBuffer buffer = new ParticleBuffer(64);
+        assertTrue(buffer.hasStoredAttributes());
+        buffer.resetProcedural(32, ParticleBuffer.KIND_DROP, 0, Particle.ScaleMode.SCALE_DOWN);
+        assertFalse(buffer.hasStoredAttributes());
+        assertNull(buffer.baseRadius);
+        assertEquals(64, buffer.cell.length);
+
+        buffer.reset(32, ParticleBuffer.KIND_DROP, 0, Particle.ScaleMode.SCALE_DOWN);
+        assertTrue(buffer.hasStoredAttributes());
+        assertNull(buffer.cell);
+    }
+
+    @Test
+    public void hash_isStateless() {
+        long first = ProceduralParticles.hash(42, 7, 3);
+        ProceduralParticles.hash(42, 8, 3);
+        assertEquals(first, ProceduralParticles.hash(42, 7, 3));
+        assertTrue(first != ProceduralParticles.hash(43, 7, 3));
+        assertTrue(first != ProceduralParticles.hash(42, 7, 2));
+    }
+
+    /**
+     * 保存模式的属性取自同一组哈希值时，程序化模式每一帧的透明度、位置、半径与保存模式一致
+     */
+    @Test
+    public void advance_matchesStoredParticles() {
+        for (int[] style : STYLES) {
+            for (Particle.ScaleMode scaleMode : Particle.ScaleMode.values()) {
+                String name = "kind " + style[0] + " direction " + style[1] + " " + scaleMode;
+                ParticleBuffer procedural = createProcedural(style[0], style[1], scaleMode);
+                ParticleBuffer stored = createStored(procedural);
+
+                for (int frame = 0; frame <= FRAMES; frame++) {
+                    float factor = END_VALUE * frame / FRAMES;
+                    stored.advance(factor, END_VALUE);
+                    procedural.advance(factor, END_VALUE);
+                    assertEquals(name + " frame " + frame, stored.visibleCount, procedural.visibleCount);
+                    for (int i = 0; i < procedural.count; i++) {
+                        String at = name + " frame " + frame + " particle " + i;
+                        assertEquals(at, stored.alpha[i] > 0, procedural.alpha[i] > 0);
+                        if (stored.alpha[i] <= 0) {
+                            continue;
+                        }
+                        assertEquals(at, stored.alpha[i], procedural.alpha[i], TOLERANCE);
+                        assertEquals(at, stored.cx[i], procedural.cx[i], TOLERANCE);
+                        assertEquals(at, stored.cy[i], procedural.cy[i], TOLERANCE);
+                        assertEquals(at, stored.radius[i], procedural.radius[i], TOLERANCE);
+                    }
+                    if (stored.hasBounds()) {
+                        assertEquals(name, stored.boundsLeft, procedural.boundsLeft, TOLERANCE);
+                        assertEquals(name, stored.boundsTop, procedural.boundsTop, TOLERANCE);
+                        assertEquals(name, stored.boundsRight, procedural.boundsRight, TOLERANCE);
+                        assertEquals(name, stored.boundsBottom, procedural.boundsBottom, TOLERANCE);
+                    }
+                }
+                assertEquals(name, stored.maxBaseRadius(), procedural.maxBaseRadius(), 0f);
+            }
+        }
+    }
+
+    /**
+     * 各绘制方式用到的准备与逐帧路径：
+     * 逐个绘制 / 顶点网格只读 advance 结果，图集按 maxBaseRadius 预留，分批绘制走 ParticleBuckets，多线程推进走后台数组
+     */
+    @Test
+    public void renderPaths_acceptProceduralBuffer() {
+        for (int[] style : STYLES) {
+            String name = "kind " + style[0] + " direction " + style[1];
+            ParticleBuffer buffer = createProcedural(style[0], style[1], Particle.ScaleMode.SCALE_UP);
+            assertTrue(name, buffer.count > 0);
+
+            // RENDER_ATLAS / SHAPE_PATH
+            assertTrue(name, buffer.maxBaseRadius() > 0);
+
+            // RENDER_BATCHED
+            ParticleBuckets buckets = new ParticleBuckets();
+            buckets.prepare(buffer);
+            ParticleBuffer.Target first = new ParticleBuffer.Target();
+            ParticleBuffer.Target second = new ParticleBuffer.Target();
+            for (int frame = 0; frame <= FRAMES; frame += 10) {
+                float factor = END_VALUE * frame / FRAMES;
+                buffer.advance(factor, END_VALUE);
+                int bucketCount = buckets.bucket(buffer, 1);
+                if (buffer.visibleCount > 0) {
+                    assertTrue(name + " frame " + frame, bucketCount > 0);
+                }
+
+                // 多线程推进：两段写入后台数组后交换，结果与单线程相同
+                float[] cx = buffer.cx.clone();
+                float[] alpha = buffer.alpha.clone();
+                int half = buffer.count / 2;
+                buffer.bindBack(first);
+                buffer.bindBack(second);
+                buffer.advance(first, 0, half, factor, END_VALUE);
+                buffer.advance(second, half, buffer.count, factor, END_VALUE);
+                buffer.swapBuffers();
+                for (int i = 0; i < buffer.count; i++) {
+                    assertEquals(name, alpha[i], buffer.alpha[i], 0f);
+                    if (alpha[i] > 0) {
+                        assertEquals(name, cx[i], buffer.cx[i], 0f);
+                    }
+                }
+            }
+        }
+    }
+
+    // ==================== 工具方法 ====================
+
+    private static int[] createPixels() {
+        int[] pixels = new int[WIDTH * HEIGHT];
+        ParticleRandom random = new ParticleRandom(1);
+        for (int i = 0; i < pixels.length; i++) {
+            // 约三分之一透明，覆盖剔除后网格编号不连续的情况
+            pixels[i] = random.nextFloat() < 0.33f ? 0 : 0xFF000000 | (int) random.nextLong();
+        }
+        return pixels;
+    }
+
+    private ParticleBuffer createProcedural(int kind, int direction, Particle.ScaleMode scaleMode) {
+        ParticleBuffer buffer = new ParticleBuffer(16, true);
+        buffer.resetProcedural(mGrid.count, kind, direction, scaleMode);
+        ParticleGenerator.generate(buffer, mPixels, WIDTH, HEIGHT, mGrid, mRect, END_VALUE, new ParticleRandom(7),
+                HORIZONTAL_MULTIPLE, VERTICAL_MULTIPLE, START_RANDOMNESS, END_RANDOMNESS);
+        buffer.bake(END_VALUE);
+        return buffer;
+    }
+
+    /**
+     * 按各样式 generate 的公式，用程序化缓冲区的哈希值填充保存模式的缓冲区
+     */
+    private ParticleBuffer createStored(ParticleBuffer procedural) {
+        final ProceduralParticles params = procedural.params;
+        final int kind = procedural.kind;
+        final int direction = procedural.direction;
+        final int columns = WIDTH / STEP;
+        ParticleBuffer stored = new ParticleBuffer(16);
+        stored.reset(procedural.count, kind, direction, procedural.scaleMode);
+        for (int i = 0; i < procedural.count; i++) {
+            int cell = procedural.cell[i];
+            long h0 = ProceduralParticles.hash(params.seed, cell, 0);
+            long h1 = ProceduralParticles.hash(params.seed, cell, 1);
+            long h2 = ProceduralParticles.hash(params.seed, cell, 2);
+            long h3 = ProceduralParticles.hash(params.seed, cell, 3);
+            float nextFloat = ProceduralParticles.high(h0);
+
+            stored.color[i] = procedural.color[i];
+            stored.baseRadius[i] = params.baseRadius(kind, cell);
+            float horizontal = Particle.calculateHorizontalElement(mRect, ProceduralParticles.high(h1), nextFloat,
+                    HORIZONTAL_MULTIPLE);
+            stored.horizontalElement[i] = kind == ParticleBuffer.KIND_RISE ? horizontal * 0.5f : horizontal;
+            stored.verticalElement[i] = Particle.calculateVerticalElement(mRect, ProceduralParticles.low(h1), nextFloat,
+                    VERTICAL_MULTIPLE);
+
+            int x = Math.min((cell % columns) * STEP + RADIUS, WIDTH - 1);
+            int y = Math.min((cell / columns) * STEP + RADIUS, HEIGHT - 1);
+            if (kind == ParticleBuffer.KIND_EXPLOSION) {
+                stored.baseCx[i] = mRect.centerX() + (WIDTH / 4) * (ProceduralParticles.high(h2) - 0.5f);
+                stored.baseCy[i] = mRect.centerY() + (HEIGHT / 4) * (ProceduralParticles.low(h2) - 0.5f);
+            } else {
+                stored.baseCx[i] = mRect.left + x;
+                stored.baseCy[i] = mRect.top + y;
+            }
+            stored.cx[i] = stored.baseCx[i];
+            stored.cy[i] = stored.baseCy[i];
+            stored.radius[i] = stored.baseRadius[i];
+            stored.startOffset[i] = END_VALUE * START_RANDOMNESS * ProceduralParticles.high(h3);
+            stored.endFadeOffset[i] = END_RANDOMNESS * ProceduralParticles.low(h3);
+            stored.trigger[i] = trigger(kind, direction, (float) x / WIDTH, (float) y / HEIGHT);
+        }
+        stored.bake(END_VALUE);
+        return stored;
+    }
+
+    private static float trigger(int kind, int direction, float left, float top) {
+        if (kind == ParticleBuffer.KIND_FLOAT) {
+            switch (direction) {
+                case FloatParticle.ORIENTATION_LEFT:
+                    return left;
+                case FloatParticle.ORIENTATION_RIGHT:
+                    return 1 - left;
+                case FloatParticle.ORIENTATION_BOTTOM:
+                    return 1 - top;
+                default:
+                    return top;
+            }
+        }
+        if (kind == ParticleBuffer.KIND_RISE) {
+            switch (direction) {
+                case RiseParticle.DIRECTION_LEFT:
+                    return left;
+                case RiseParticle.DIRECTION_RIGHT:
+                    return 1 - left;
+                case RiseParticle.DIRECTION_TOP:
+                    return top;
+                default:
+                    return 0;
+            }
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.tombcato.particlesmasher.particle;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * 积分图：任意网格的平均颜色与逐像素计算一致，rgb 按 alpha 加权，大网格不溢出
+ */
+public class SummedAreaTableTest {
+
+    @Test
+    public void average_matchesPerPixelAverage() {
+        final int width = 53;
+        final int height = 41;
+        final int[] pixels = randomPixels(width, height, 9);
+        SummedAreaTable table = new SummedAreaTable();
+        for (int size = 1; size <= 8; size++) {
+            table.build(pixels, 0, width, width, height, size);
+            for (int top = 0; top < height; top += size) {
+                for (int left = 0; left < width; left += size) {
+                    String at = "size " + size + " at " + left + "," + top;
+                    int expected = visible(ParticleGenerator.averageColor(pixels, 0, width, width, height, left, top, size));
+                    int actual = table.average(left, top, Math.min(left + size, width), Math.min(top + size, height));
+                    assertEquals(at, Integer.toHexString(expected), Integer.toHexString(actual));
+                }
+            }
+        }
+    }
+
+    /**
+     * 截图中的一块子区域（offset / stride）与单独截取的结果相同
+     */
+    @Test
+    public void build_respectsOffsetAndStride() {
+        final int stride = 40;
+        final int[] pixels = randomPixels(stride, 30, 4);
+        final int offsetX = 7;
+        final int offsetY = 5;
+        final int width = 20;
+        final int height = 18;
+        final int[] crop = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(pixels, (offsetY + y) * stride + offsetX, crop, y * width, width);
+        }
+        SummedAreaTable table = new SummedAreaTable();
+        SummedAreaTable reference = new SummedAreaTable();
+        table.build(pixels, offsetY * stride + offsetX, stride, width, height, 3);
+        reference.build(crop, 0, width, width, height, 3);
+        for (int top = 0; top < height; top += 3) {
+            for (int left = 0; left < width; left += 3) {
+                int right = Math.min(left + 3, width);
+                int bottom = Math.min(top + 3, height);
+                assertEquals(reference.average(left, top, right, bottom), table.average(left, top, right, bottom));
+            }
+        }
+    }
+
+    /**
+     * 半透明边缘：透明像素的 rgb 不参与平均，alpha 取平均透明度
+     */
+    @Test
+    public void average_isAlphaWeighted() {
+        // 左半不透明红色，右半完全透明（rgb 为黑色）
+        final int[] pixels = {
+                0xFFFF0000, 0x00000000,
+                0xFFFF0000, 0x00000000,
+        };
+        SummedAreaTable table = new SummedAreaTable();
+        table.build(pixels, 0, 2, 2, 2, 2);
+        assertEquals(Integer.toHexString(0x80FF0000), Integer.toHexString(table.average(0, 0, 2, 2)));
+        assertEquals(0, table.average(1, 0, 2, 2));
+
+        // 不同透明度的两种颜色：rgb 按 alpha 加权
+        final int[] mixed = {0x40FF0000, 0xC00000FF};
+        table.build(mixed, 0, 2, 2, 1, 1);
+        int average = table.average(0, 0, 2, 1);
+        assertEquals(0x80, average >>> 24);
+        assertEquals(0x40, (average >> 16) & 0xFF);
+        assertEquals(0xBF, average & 0xFF);
+        assertEquals(Integer.toHexString(average),
+                Integer.toHexString(ParticleGenerator.averageColor(mixed, 0, 2, 2, 1, 0, 0, 2)));
+    }
+
+    /**
+     * 单个网格的预乘通道和超过 int 范围（255 × 255 × 像素数 > 2^31）时仍然准确
+     */
+    @Test
+    public void average_largeCellDoesNotOverflow() {
+        final int size = 300;
+        final int[] pixels = new int[size * size];
+        Arrays.fill(pixels, 0xFFFFFFFF);
+        pixels[0] = 0xFF000000;
+        SummedAreaTable table = new SummedAreaTable();
+        table.build(pixels, 0, size, size, size, size);
+        int expected = ParticleGenerator.averageColor(pixels, 0, size, size, size, 0, 0, size);
+        assertEquals(Integer.toHexString(expected), Integer.toHexString(table.average(0, 0, size, size)));
+        assertEquals(Integer.toHexString(0xFFFFFFFF), Integer.toHexString(expected));
+    }
+
+    /**
+     * 完全透明的颜色不可见，rgb 无意义，统一为 0
+     */
+    private static int visible(int color) {
+        return (color >>> 24) == 0 ? 0 : color;
+    }
+
+    private static int[] randomPixels(int width, int height, long seed) {
+        ParticleRandom random = new ParticleRandom(seed);
+        int[] pixels = new int[width * height];
+        for (int i = 0; i < pixels.length; i++) {
+            float roll = random.nextFloat();
+            int color = (int) random.nextLong();
+            // 混合完全透明、半透明与不透明像素
+            if (roll < 0.2f) {
+                pixels[i] = color & 0x00FFFFFF;
+            } else if (roll < 0.6f) {
+                pixels[i] = color | 0xFF000000;
+            } else {
+                pixels[i] = color;
+            }
+        }
+        return pixels;
+    }
+}
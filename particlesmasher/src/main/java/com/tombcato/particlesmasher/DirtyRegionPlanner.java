@@ -0,0 +1,80 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Rect;
+
+/**
+ * <pre>
+ *     desc   : 脏区规划
+ *              收集每个动画各自的脏区并求并集，一帧只 invalidate 一次；
+ *              并集超过容器面积的 80% 时改为整体重绘。仅限主线程使用，不分配对象。
+ *              不再按区域分别 invalidate：ViewRootImpl 会把同一帧的多次 invalidate 合并为一个并集，
+ *              硬件加速下 Android 9 起更是忽略矩形、整体重绘，分区域刷新并不能减少实际重绘的面积。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class DirtyRegionPlanner {
+
+    /** 并集面积超过容器面积的该比例时整体重绘 */
+    static final float FULL_REDRAW_RATIO = 0.8f;
+
+    private final Rect mBounds = new Rect();
+    private int mCount;
+    private long mPixels;
+
+    /**
+     * 开始新的一帧
+     */
+    void reset() {
+        mBounds.setEmpty();
+        mCount = 0;
+        mPixels = 0;
+    }
+
+    /**
+     * 加入一个动画的脏区，空区域忽略
+     */
+    void add(Rect rect) {
+        if (rect.isEmpty()) {
+            return;
+        }
+        if (mCount == 0) {
+            mBounds.set(rect);
+        } else {
+            mBounds.union(rect);
+        }
+        mCount++;
+    }
+
+    /**
+     * 判断是否整体重绘
+     * @param viewWidth  容器宽度
+     * @param viewHeight 容器高度
+     * @return true 表示应整体重绘
+     */
+    boolean plan(int viewWidth, int viewHeight) {
+        long pixels = (long) mBounds.width() * mBounds.height();
+        long viewArea = (long) viewWidth * viewHeight;
+        if (viewArea > 0 && pixels > viewArea * FULL_REDRAW_RATIO) {
+            mPixels = viewArea;
+            return true;
+        }
+        mPixels = pixels;
+        return false;
+    }
+
+    /** 本帧加入的非空脏区数量 */
+    int getRegionCount() {
+        return mCount;
+    }
+
+    /** 所有脏区的并集 */
+    Rect getBounds() {
+        return mBounds;
+    }
+
+    /** 规划后请求重绘的像素数（并集面积，整体重绘时为容器面积） */
+    long getPixelCount() {
+        return mPixels;
+    }
+}
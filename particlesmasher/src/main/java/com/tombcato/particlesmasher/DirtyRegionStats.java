@@ -0,0 +1,85 @@
+package com.tombcato.particlesmasher;
+
+/**
+ * <pre>
+ *     desc   : 脏区重绘统计
+ *              记录 ParticleSmasher 每帧的刷新决策（整体重绘 / 按脏区并集重绘）及请求重绘的像素数。
+ *              像素数是 invalidate 请求的面积：硬件加速下 Android 9 起框架忽略 invalidate 的矩形，
+ *              实际仍会整体重绘，此时它只反映粒子覆盖的范围，不代表节省的绘制量。仅限主线程读取。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class DirtyRegionStats {
+
+    private long mFrameCount;
+    private long mFullRedrawCount;
+    private long mRegionCount;
+    private long mPixelCount;
+    private int mLastRegionCount;
+    private long mLastPixelCount;
+
+    /** 发起过重绘的帧数 */
+    public long getFrameCount() {
+        return mFrameCount;
+    }
+
+    /** 整体重绘的帧数 */
+    public long getFullRedrawCount() {
+        return mFullRedrawCount;
+    }
+
+    /** 按并集重绘时累计合并的动画脏区数 */
+    public long getRegionCount() {
+        return mRegionCount;
+    }
+
+    /** 累计请求重绘的像素数（按并集面积计，整体重绘按容器面积计） */
+    public long getPixelCount() {
+        return mPixelCount;
+    }
+
+    /** 最近一帧合并的动画脏区数，0 表示整体重绘 */
+    public int getLastRegionCount() {
+        return mLastRegionCount;
+    }
+
+    /** 最近一帧请求重绘的像素数 */
+    public long getLastPixelCount() {
+        return mLastPixelCount;
+    }
+
+    /**
+     * 清零统计
+     */
+    public void reset() {
+        mFrameCount = 0;
+        mFullRedrawCount = 0;
+        mRegionCount = 0;
+        mPixelCount = 0;
+        mLastRegionCount = 0;
+        mLastPixelCount = 0;
+    }
+
+    /**
+     * 记录一帧
+     * @param regions 合并的动画脏区数，0 表示整体重绘
+     * @param pixels  请求重绘的像素数
+     */
+    void record(int regions, long pixels) {
+        mFrameCount++;
+        if (regions == 0) {
+            mFullRedrawCount++;
+        }
+        mRegionCount += regions;
+        mPixelCount += pixels;
+        mLastRegionCount = regions;
+        mLastPixelCount = pixels;
+    }
+
+    @Override
+    public String toString() {
+        return "DirtyRegionStats{frames=" + mFrameCount + ", full=" + mFullRedrawCount
+                + ", regions=" + mRegionCount + ", pixels=" + mPixelCount + "}";
+    }
+}
@@ -0,0 +1,110 @@
+package com.tombcato.particlesmasher;
+
+import android.view.Choreographer;
+
+import java.util.ArrayList;
+
+/**
+ * <pre>
+ *     desc   : 进程内共享的帧时钟
+ *              基于 Choreographer.FrameCallback，所有 ParticleSmasher 注册到同一个时钟，
+ *              每个 vsync 只回调一次，各动画使用同一个帧时间计算进度，步调一致。
+ *              仅限主线程使用。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class FrameClock implements Choreographer.FrameCallback {
+
+    /**
+     * 帧回调
+     */
+    interface Callback {
+        /**
+         * @param frameTimeNanos 当前帧的时间（与 System.nanoTime() 同一时基）
+         */
+        void onFrame(long frameTimeNanos);
+    }
+
+    private static FrameClock sInstance;
+
+    private final ArrayList<Callback> mCallbacks = new ArrayList<>();
+    private boolean mPosted;
+    private boolean mDispatching;
+    private boolean mHasRemoved;            // 分发期间有回调被移除，分发结束后统一清理
+    private long mLastFrameTimeNanos;
+
+    static FrameClock getInstance() {
+        if (sInstance == null) {
+            sInstance = new FrameClock();
+        }
+        return sInstance;
+    }
+
+    private FrameClock() {
+    }
+
+    /**
+     * 注册帧回调，重复注册无效
+     */
+    void register(Callback callback) {
+        if (!mCallbacks.contains(callback)) {
+            mCallbacks.add(callback);
+        }
+        scheduleNextFrame();
+    }
+
+    /**
+     * 取消注册。分发期间调用时仅置空，分发结束后再移除，不影响本帧其余回调
+     */
+    void unregister(Callback callback) {
+        int index = mCallbacks.indexOf(callback);
+        if (index < 0) {
+            return;
+        }
+        if (mDispatching) {
+            mCallbacks.set(index, null);
+            mHasRemoved = true;
+        } else {
+            mCallbacks.remove(index);
+        }
+    }
+
+    /**
+     * 最近一帧的时间，尚未收到帧时返回当前时间
+     */
+    long getFrameTimeNanos() {
+        return mLastFrameTimeNanos != 0 ? mLastFrameTimeNanos : System.nanoTime();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        mPosted = false;
+        mLastFrameTimeNanos = frameTimeNanos;
+        mDispatching = true;
+        // 按下标遍历，回调中新注册的对象从下一帧开始生效
+        for (int i = 0, size = mCallbacks.size(); i < size; i++) {
+            Callback callback = mCallbacks.get(i);
+            if (callback != null) {
+                callback.onFrame(frameTimeNanos);
+            }
+        }
+        mDispatching = false;
+        if (mHasRemoved) {
+            for (int i = mCallbacks.size() - 1; i >= 0; i--) {
+                if (mCallbacks.get(i) == null) {
+                    mCallbacks.remove(i);
+                }
+            }
+            mHasRemoved = false;
+        }
+        scheduleNextFrame();
+    }
+
+    private void scheduleNextFrame() {
+        if (!mPosted && !mCallbacks.isEmpty()) {
+            mPosted = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+}
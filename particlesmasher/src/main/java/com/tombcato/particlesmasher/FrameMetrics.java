@@ -0,0 +1,111 @@
+package com.tombcato.particlesmasher;
+
+/**
+ * <pre>
+ *     desc   : 逐帧性能指标
+ *              由 ParticleSmasher 在每个帧时钟回调结束时填写，对象复用、不分配内存；
+ *              可通过 {@link ParticleSmasher#getFrameMetrics()} 轮询，或通过
+ *              {@link ParticleSmasher.OnMetricsListener} 逐帧接收。仅在启用指标时更新。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class FrameMetrics {
+
+    long frameTimeNanos;
+    long frameIntervalNanos;
+    int animatorCount;
+    int particleCount;
+    int visibleParticleCount;
+    int reservedParticleCount;
+    long advanceNanos;
+    long drawNanos;
+    long dirtyPixels;
+    int qualityLevel;
+    long frameCount;
+    long droppedFrames;
+    long culledParticles;
+
+    /** 帧时间（与 System.nanoTime() 同一时基） */
+    public long getFrameTimeNanos() {
+        return frameTimeNanos;
+    }
+
+    /** 与上一帧的间隔，首帧为 0 */
+    public long getFrameIntervalNanos() {
+        return frameIntervalNanos;
+    }
+
+    /** 动画数量（含生成中的） */
+    public int getAnimatorCount() {
+        return animatorCount;
+    }
+
+    /** 本帧参与推进的粒子总数 */
+    public int getParticleCount() {
+        return particleCount;
+    }
+
+    /** 本帧可见（alpha > 0）的粒子数，使用独立渲染线程时为 0 */
+    public int getVisibleParticleCount() {
+        return visibleParticleCount;
+    }
+
+    /** 当前占用的粒子预算，见 {@link ParticleSmasher#getLiveParticleCount()} */
+    public int getReservedParticleCount() {
+        return reservedParticleCount;
+    }
+
+    /** 本帧推进所有动画的耗时 */
+    public long getAdvanceNanos() {
+        return advanceNanos;
+    }
+
+    /** 最近一次绘制所有粒子的耗时 */
+    public long getDrawNanos() {
+        return drawNanos;
+    }
+
+    /** 本帧请求重绘的像素数，0 表示未请求 */
+    public long getDirtyPixels() {
+        return dirtyPixels;
+    }
+
+    /** 本帧使用的画质等级，见 {@link QualityGovernor} */
+    public int getQualityLevel() {
+        return qualityLevel;
+    }
+
+    /** 启用指标以来的帧数 */
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    /** 启用指标以来的掉帧数：相邻两帧的间隔超过刷新周期的 1.5 倍时，按缺失的周期数累计 */
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    /** 启用指标以来，生成粒子时因低于透明度阈值被剔除的粒子数，见 {@link SmashAnimator#setAlphaThreshold(int)} */
+    public long getCulledParticles() {
+        return culledParticles;
+    }
+
+    /**
+     * 清零累计值（帧数、掉帧数、剔除数）
+     */
+    public void reset() {
+        frameCount = 0;
+        droppedFrames = 0;
+        culledParticles = 0;
+        frameTimeNanos = 0;
+        frameIntervalNanos = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "FrameMetrics{animators=" + animatorCount + ", particles=" + visibleParticleCount + "/" + particleCount
+                + ", advance=" + advanceNanos + "ns, draw=" + drawNanos + "ns, dirty=" + dirtyPixels
+                + ", quality=" + qualityLevel + ", frames=" + frameCount + ", dropped=" + droppedFrames + ", culled=" + culledParticles + "}";
+    }
+}
@@ -0,0 +1,162 @@
+package com.tombcato.particlesmasher;
+
+import android.os.Process;
+
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <pre>
+ *     desc   : 多线程粒子推进（双缓冲流水线）
+ *              第 N 帧把推进任务按区间切分到工作线程，写入缓冲区的后台数组，同时主线程绘制
+ *              第 N-1 帧的结果；第 N+1 帧开始时等待任务完成并交换前后台数组。
+ *              主线程只负责绘制，画面比单线程推进晚一帧，每一帧的粒子状态与单线程完全相同。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class ParallelAdvancer {
+
+    /** 每个区间的最少粒子数，避免切分过细 */
+    private static final int MIN_CHUNK_SIZE = 4096;
+
+    /** 工作线程数：保留一个核心给主线程 */
+    private static final int WORKER_COUNT = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
+    /** 工作线程池（进程内共享）。有界数组队列，提交任务不分配对象；队列满时由调用方线程执行 */
+    private static ThreadPoolExecutor sExecutor;
+
+    private static synchronized ThreadPoolExecutor executor() {
+        if (sExecutor == null) {
+            sExecutor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(WORKER_COUNT * 64), runnable -> {
+                        Thread thread = new Thread(() -> {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_DISPLAY);
+                            runnable.run();
+                        }, "ParticleSmasher-advance");
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.CallerRunsPolicy());
+        }
+        return sExecutor;
+    }
+
+    private final Chunk[] mChunks = new Chunk[WORKER_COUNT * 2];
+    private int mChunkCount;
+    private int mPending;                   // 未完成的区间数，受 this 保护
+    private ParticleBuffer mBuffer;         // 正在后台计算的缓冲区，null 表示没有任务
+
+    ParallelAdvancer() {
+        for (int i = 0; i < mChunks.length; i++) {
+            mChunks[i] = new Chunk();
+        }
+    }
+
+    /**
+     * 在工作线程上计算下一帧，写入 buffer 的后台数组（主线程）。
+     * 提交前需先调用 {@link #finish()} 取回上一次的结果
+     * @param buffer   粒子数据，计算期间只读
+     * @param factor   动画值
+     * @param endValue 动画结束值
+     */
+    void submit(ParticleBuffer buffer, float factor, float endValue) {
+        final int count = buffer.count;
+        int chunkCount = Math.min(mChunks.length, Math.max(1, count / MIN_CHUNK_SIZE));
+        int chunkSize = (count + chunkCount - 1) / chunkCount;
+
+        mBuffer = buffer;
+        mChunkCount = chunkCount;
+        synchronized (this) {
+            mPending = chunkCount;
+        }
+        ThreadPoolExecutor executor = executor();
+        for (int i = 0; i < chunkCount; i++) {
+            Chunk chunk = mChunks[i];
+            buffer.bindBack(chunk.target);
+            chunk.buffer = buffer;
+            chunk.from = i * chunkSize;
+            chunk.to = Math.min(count, chunk.from + chunkSize);
+            chunk.factor = factor;
+            chunk.endValue = endValue;
+            executor.execute(chunk);
+        }
+    }
+
+    /**
+     * 等待后台任务完成，交换前后台数组并合并包围盒（主线程）
+     * @return 是否有结果被交换到前台
+     */
+    boolean finish() {
+        final ParticleBuffer buffer = mBuffer;
+        if (buffer == null) {
+            return false;
+        }
+        await();
+        mBuffer = null;
+        buffer.swapBuffers();
+        buffer.resetBounds();
+        for (int i = 0; i < mChunkCount; i++) {
+            buffer.unionBounds(mChunks[i].target);
+            mChunks[i].buffer = null;
+        }
+        return true;
+    }
+
+    /**
+     * 等待后台任务完成并丢弃结果，之后缓冲区可以安全归还（主线程）
+     */
+    void cancel() {
+        if (mBuffer == null) {
+            return;
+        }
+        await();
+        mBuffer = null;
+        for (int i = 0; i < mChunkCount; i++) {
+            mChunks[i].buffer = null;
+        }
+    }
+
+    private synchronized void await() {
+        boolean interrupted = false;
+        while (mPending > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private synchronized void onChunkDone() {
+        if (--mPending == 0) {
+            notifyAll();
+        }
+    }
+
+    /**
+     * 一个区间的推进任务，对象复用
+     */
+    private final class Chunk implements Runnable {
+        final ParticleBuffer.Target target = new ParticleBuffer.Target();
+        ParticleBuffer buffer;
+        int from;
+        int to;
+        float factor;
+        float endValue;
+
+        @Override
+        public void run() {
+            try {
+                buffer.advance(target, from, to, factor, endValue);
+            } finally {
+                onChunkDone();
+            }
+        }
+    }
+}
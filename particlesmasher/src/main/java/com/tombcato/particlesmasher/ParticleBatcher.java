@@ -0,0 +1,74 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+import com.tombcato.particlesmasher.particle.ParticleBuckets;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+/**
+ * <pre>
+ *     desc   : 粒子批量绘制器
+ *              由 {@link ParticleBuckets} 将颜色、透明度、半径量化为桶，同一个桶内的粒子合并为一次 Canvas.drawPoints 调用。
+ *              圆形使用 ROUND 线帽，方形使用 SQUARE 线帽，点的大小取桶的代表半径。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class ParticleBatcher {
+
+    private final Paint mPaint;
+    private final ParticleBuckets mBuckets = new ParticleBuckets();
+
+    ParticleBatcher() {
+        mPaint = new Paint();
+        mPaint.setAntiAlias(true);
+        mPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    /**
+     * 为粒子建立调色板，粒子颜色在动画过程中不变，只需在生成后调用一次
+     * @param buffer 粒子数据
+     */
+    void prepare(ParticleBuffer buffer) {
+        mBuckets.prepare(buffer);
+    }
+
+    /**
+     * 量化后点的半径最多比实际半径大一级，脏区需按此扩展
+     */
+    float getRadiusPadding() {
+        return mBuckets.getRadiusPadding();
+    }
+
+    /**
+     * 按桶批量绘制粒子（粒子状态需已 advance）
+     * @param canvas   画板
+     * @param buffer   粒子数据
+     * @param square    是否方形
+     * @param antiAlias 是否抗锯齿
+     * @param stride    粒子步长，2 表示隔一个绘制一个
+     * @return 本帧发出的绘制调用次数
+     */
+    int draw(Canvas canvas, ParticleBuffer buffer, boolean square, boolean antiAlias, int stride) {
+        final ParticleBuckets buckets = mBuckets;
+        final int bucketCount = buckets.bucket(buffer, stride);
+        if (bucketCount == 0) {
+            return 0;
+        }
+
+        // 每个桶一次 drawPoints
+        final Paint paint = mPaint;
+        final float[] points = buckets.getPoints();
+        paint.setStrokeCap(square ? Paint.Cap.SQUARE : Paint.Cap.ROUND);
+        paint.setAntiAlias(antiAlias);
+        for (int b = 0; b < bucketCount; b++) {
+            paint.setColor(buckets.getColor(b));
+            paint.setAlpha(buckets.getAlpha(b));
+            paint.setStrokeWidth(buckets.getRadius(b) * 2);
+            canvas.drawPoints(points, buckets.getStart(b), buckets.getLength(b), paint);
+        }
+        return bucketCount;
+    }
+
+}
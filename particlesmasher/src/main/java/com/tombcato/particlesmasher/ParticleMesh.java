@@ -0,0 +1,155 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+/**
+ * <pre>
+ *     desc   : 粒子网格绘制器
+ *              每个可见粒子写入两个三角形（6 个顶点）：方形直接使用顶点颜色，
+ *              圆形从共享的圆形纹理取样并与顶点颜色相乘。一个动画的全部粒子只需一次 Canvas.drawVertices。
+ *              顶点/纹理/颜色数组在生成粒子后按数量分配一次，之后每帧复用。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class ParticleMesh {
+
+    /** 共享圆形纹理的边长 */
+    private static final int TEXTURE_SIZE = 64;
+
+    private static final int VERTICES_PER_PARTICLE = 6;
+
+    /** 进程内共享的圆形纹理（白色，抗锯齿边缘） */
+    private static Bitmap sCircleTexture;
+
+    private final Paint mPaint = new Paint();
+    private final Paint mTexturePaint = new Paint();
+
+    private float[] mVerts = new float[0];          // 顶点坐标 (x, y)
+    private float[] mTexs = new float[0];           // 纹理坐标 (u, v)，对应每个顶点
+    private int[] mColors = new int[0];             // 顶点颜色
+
+    ParticleMesh() {
+        mTexturePaint.setShader(new BitmapShader(circleTexture(), Shader.TileMode.CLAMP, Shader.TileMode.CLAMP));
+    }
+
+    /**
+     * 按粒子数量分配顶点数组，纹理坐标只与粒子序号有关，在这里一次写好
+     * @param buffer 粒子数据
+     */
+    void prepare(ParticleBuffer buffer) {
+        int count = buffer.count;
+        if (mColors.length >= count * VERTICES_PER_PARTICLE) {
+            return;
+        }
+        mVerts = new float[count * VERTICES_PER_PARTICLE * 2];
+        mColors = new int[count * VERTICES_PER_PARTICLE];
+        mTexs = new float[count * VERTICES_PER_PARTICLE * 2];
+        final float[] texs = mTexs;
+        final float size = TEXTURE_SIZE;
+        for (int p = 0; p < texs.length; p += 12) {
+            // 两个三角形：(左上, 右上, 左下), (右上, 右下, 左下)
+            texs[p] = 0;         texs[p + 1] = 0;
+            texs[p + 2] = size;  texs[p + 3] = 0;
+            texs[p + 4] = 0;     texs[p + 5] = size;
+            texs[p + 6] = size;  texs[p + 7] = 0;
+            texs[p + 8] = size;  texs[p + 9] = size;
+            texs[p + 10] = 0;    texs[p + 11] = size;
+        }
+    }
+
+    /**
+     * 一次 drawVertices 绘制全部可见粒子（粒子状态需已 advance）
+     * @param canvas     画板
+     * @param buffer     粒子数据
+     * @param square     是否方形（不使用纹理）
+     * @param filter     圆形纹理是否双线性过滤
+     * @param stride     粒子步长，2 表示隔一个绘制一个
+     * @param coarseFade 透明度是否量化为 4 级
+     * @return 绘制的粒子数
+     */
+    int draw(Canvas canvas, ParticleBuffer buffer, boolean square, boolean filter, int stride, boolean coarseFade) {
+        final int count = Math.min(buffer.count, mColors.length / VERTICES_PER_PARTICLE);
+        final int[] colors = buffer.color;
+        final float[] alphas = buffer.alpha;
+        final float[] xs = buffer.cx;
+        final float[] ys = buffer.cy;
+        final float[] radii = buffer.radius;
+        final float[] verts = mVerts;
+        final int[] vertexColors = mColors;
+        int visible = 0;
+
+        for (int i = 0; i < count; i += stride) {
+            float alpha = alphas[i];
+            float r = radii[i];
+            if (alpha <= 0 || r <= 0) {
+                continue;
+            }
+            int a = (int) ((colors[i] >>> 24) * alpha);
+            if (coarseFade) {
+                a = QualityGovernor.coarseAlpha(a);
+            }
+            // 颜色本身透明或淡出到 0 时不生成四边形
+            if (a == 0) {
+                continue;
+            }
+            int color = (a << 24) | (colors[i] & 0x00FFFFFF);
+            float left = xs[i] - r;
+            float top = ys[i] - r;
+            float right = xs[i] + r;
+            float bottom = ys[i] + r;
+
+            int p = visible * 12;
+            verts[p] = left;       verts[p + 1] = top;
+            verts[p + 2] = right;  verts[p + 3] = top;
+            verts[p + 4] = left;   verts[p + 5] = bottom;
+            verts[p + 6] = right;  verts[p + 7] = top;
+            verts[p + 8] = right;  verts[p + 9] = bottom;
+            verts[p + 10] = left;  verts[p + 11] = bottom;
+
+            int c = visible * VERTICES_PER_PARTICLE;
+            vertexColors[c] = color;
+            vertexColors[c + 1] = color;
+            vertexColors[c + 2] = color;
+            vertexColors[c + 3] = color;
+            vertexColors[c + 4] = color;
+            vertexColors[c + 5] = color;
+            visible++;
+        }
+        if (visible == 0) {
+            return 0;
+        }
+
+        int vertexCount = visible * VERTICES_PER_PARTICLE * 2;
+        if (square) {
+            canvas.drawVertices(Canvas.VertexMode.TRIANGLES, vertexCount, verts, 0,
+                    null, 0, vertexColors, 0, null, 0, 0, mPaint);
+        } else {
+            // 纹理与顶点颜色相乘：白色圆形 × 粒子颜色
+            mTexturePaint.setFilterBitmap(filter);
+            canvas.drawVertices(Canvas.VertexMode.TRIANGLES, vertexCount, verts, 0,
+                    mTexs, 0, vertexColors, 0, null, 0, 0, mTexturePaint);
+        }
+        return visible;
+    }
+
+    private static synchronized Bitmap circleTexture() {
+        if (sCircleTexture == null) {
+            Bitmap bitmap = Bitmap.createBitmap(TEXTURE_SIZE, TEXTURE_SIZE, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bitmap);
+            Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            paint.setColor(Color.WHITE);
+            float center = TEXTURE_SIZE * 0.5f;
+            canvas.drawCircle(center, center, center - 0.5f, paint);
+            sCircleTexture = bitmap;
+        }
+        return sCircleTexture;
+    }
+}
@@ -0,0 +1,293 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.view.Choreographer;
+import android.view.Surface;
+import android.view.TextureView;
+import android.view.ViewGroup;
+
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * <pre>
+ *     desc   : 独立渲染线程（{@link ParticleSmasher#BACKEND_TEXTURE_VIEW}）
+ *              在 ParticleSmasher 之上叠加一个透明 TextureView，粒子的推进与绘制都在专用线程上完成，
+ *              由该线程自己的 Choreographer 按 vsync 驱动，动画值按渲染帧时间计算，主线程卡顿不影响粒子。
+ *              主线程仍负责动画状态、View 抖动与回调，每帧把仍有粒子的动画的绘制参数（不可变的
+ *              {@link SmashAnimator.RenderState}）发布给渲染线程，渲染线程不读动画本身的字段。
+ *     version: 1.0
+ * </pre>
+ */
+
+final class ParticleRenderer implements TextureView.SurfaceTextureListener, Choreographer.FrameCallback {
+
+    private final ParticleSmasher mSmasher;
+    private final TextureView mTextureView;
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final Runnable mScheduleRunnable = this::scheduleFrame;
+
+    // ==================== 主线程发布的数据（受 mLock 保护） ====================
+
+    private final Object mLock = new Object();
+    private SmashAnimator.RenderState[] mStates = new SmashAnimator.RenderState[4];
+    private int mCount;
+    private final ArrayList<ParticleBuffer> mPendingRelease = new ArrayList<>();   // 渲染中被归还的缓冲区
+    private final ArrayList<SpriteAtlas> mPendingAtlases = new ArrayList<>();     // 渲染中被回收的图集
+    private Surface mSurface;
+    private boolean mRendering;             // 渲染线程正在绘制
+    private boolean mScheduled;             // 已请求下一帧
+
+    // ==================== 渲染线程私有 ====================
+
+    private Choreographer mChoreographer;
+    private SmashAnimator.RenderState[] mFrameStates = new SmashAnimator.RenderState[4];
+    private boolean mCleared = true;        // 画面已清空
+
+    ParticleRenderer(ParticleSmasher smasher) {
+        mSmasher = smasher;
+        mThread = new HandlerThread("ParticleSmasher-render", Process.THREAD_PRIORITY_DISPLAY);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+        // Choreographer 按线程创建，需在渲染线程上获取
+        mHandler.post(() -> mChoreographer = Choreographer.getInstance());
+
+        mTextureView = new TextureView(smasher.getContext());
+        mTextureView.setOpaque(false);
+        mTextureView.setSurfaceTextureListener(this);
+        ViewGroup parent = (ViewGroup) smasher.getParent();
+        if (parent != null) {
+            // 紧贴在 ParticleSmasher 之上，坐标系一致
+            parent.addView(mTextureView, parent.indexOfChild(smasher) + 1, new ViewGroup.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT,
+                    ViewGroup.LayoutParams.MATCH_PARENT));
+        }
+    }
+
+    /**
+     * 发布当前仍有粒子的动画（主线程，每帧调用）
+     * @param animators 动画快照
+     * @param size      快照中的动画数量
+     */
+    void publish(SmashAnimator[] animators, int size) {
+        synchronized (mLock) {
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                SmashAnimator.RenderState state = animators[i].getRenderState();
+                if (state == null) {
+                    continue;
+                }
+                if (count == mStates.length) {
+                    mStates = Arrays.copyOf(mStates, count * 2);
+                }
+                mStates[count++] = state;
+            }
+            for (int i = count; i < mCount; i++) {
+                mStates[i] = null;
+            }
+            mCount = count;
+            requestFrameLocked();
+        }
+    }
+
+    /**
+     * 归还粒子缓冲区（主线程）。渲染线程正在绘制时延迟到本帧结束后归还
+     */
+    void releaseParticles(ParticleBuffer buffer) {
+        synchronized (mLock) {
+            for (int i = 0; i < mCount; i++) {
+                if (mStates[i].buffer == buffer) {
+                    // 移除并保持顺序
+                    System.arraycopy(mStates, i + 1, mStates, i, mCount - i - 1);
+                    mStates[--mCount] = null;
+                    break;
+                }
+            }
+            if (mRendering) {
+                mPendingRelease.add(buffer);
+                return;
+            }
+        }
+        mSmasher.getParticleArena().release(buffer);
+    }
+
+    /**
+     * 回收形状图集（主线程）。渲染线程正在绘制时延迟到本帧结束后回收
+     */
+    void releaseAtlas(SpriteAtlas atlas) {
+        synchronized (mLock) {
+            if (mRendering) {
+                mPendingAtlases.add(atlas);
+                return;
+            }
+        }
+        atlas.recycle();
+    }
+
+    /**
+     * 移除叠加层并结束渲染线程（主线程）
+     */
+    void release() {
+        ViewGroup parent = (ViewGroup) mTextureView.getParent();
+        if (parent != null) {
+            // 触发 onSurfaceTextureDestroyed，等待当前帧结束
+            parent.removeView(mTextureView);
+        }
+        releaseSurface();
+        synchronized (mLock) {
+            mCount = 0;
+            Arrays.fill(mStates, null);
+        }
+        mThread.quitSafely();
+    }
+
+    // ==================== SurfaceTextureListener（主线程） ====================
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surfaceTexture, int width, int height) {
+        synchronized (mLock) {
+            mSurface = new Surface(surfaceTexture);
+            requestFrameLocked();
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surfaceTexture, int width, int height) {
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surfaceTexture) {
+        releaseSurface();
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surfaceTexture) {
+    }
+
+    // ==================== 渲染线程 ====================
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        final Surface surface;
+        final int count;
+        synchronized (mLock) {
+            mScheduled = false;
+            surface = mSurface;
+            if (surface == null) {
+                return;
+            }
+            count = mCount;
+            if (mFrameStates.length < count) {
+                mFrameStates = new SmashAnimator.RenderState[mStates.length];
+            }
+            System.arraycopy(mStates, 0, mFrameStates, 0, count);
+            mRendering = true;
+        }
+
+        try {
+            if (count > 0 || !mCleared) {
+                drawFrame(surface, frameTimeNanos, count);
+                mCleared = count == 0;
+            }
+        } finally {
+            Arrays.fill(mFrameStates, 0, count, null);
+            synchronized (mLock) {
+                mRendering = false;
+                for (int i = 0, size = mPendingRelease.size(); i < size; i++) {
+                    mSmasher.getParticleArena().release(mPendingRelease.get(i));
+                }
+                mPendingRelease.clear();
+                for (int i = 0, size = mPendingAtlases.size(); i < size; i++) {
+                    mPendingAtlases.get(i).recycle();
+                }
+                mPendingAtlases.clear();
+                if (mCount > 0 || !mCleared) {
+                    requestFrameLocked();
+                }
+                mLock.notifyAll();
+            }
+        }
+    }
+
+    private void drawFrame(Surface surface, long frameTimeNanos, int count) {
+        Canvas canvas;
+        try {
+            canvas = Build.VERSION.SDK_INT >= Build.VERSION_CODES.M
+                    ? surface.lockHardwareCanvas()
+                    : surface.lockCanvas(null);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            // Surface 已失效
+            return;
+        }
+        long start = System.nanoTime();
+        QualityGovernor governor = mSmasher.getQualityGovernor();
+        int quality = governor.getLevel();
+        try {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            for (int i = 0; i < count; i++) {
+                mFrameStates[i].render(canvas, frameTimeNanos, quality);
+            }
+        } finally {
+            surface.unlockCanvasAndPost(canvas);
+        }
+        if (count > 0) {
+            long drawNanos = System.nanoTime() - start;
+            mSmasher.recordDrawNanos(drawNanos);
+            governor.onFrame(drawNanos);
+        }
+    }
+
+    private void scheduleFrame() {
+        mChoreographer.postFrameCallback(this);
+    }
+
+    /**
+     * 请求渲染线程的下一帧，调用方需持有 mLock
+     */
+    private void requestFrameLocked() {
+        if (!mScheduled && mSurface != null) {
+            mScheduled = true;
+            if (Thread.currentThread() == mThread && mChoreographer != null) {
+                mChoreographer.postFrameCallback(this);
+            } else {
+                mHandler.post(mScheduleRunnable);
+            }
+        }
+    }
+
+    /**
+     * 停止向 Surface 绘制，等待当前帧结束后释放
+     */
+    private void releaseSurface() {
+        Surface surface;
+        synchronized (mLock) {
+            surface = mSurface;
+            mSurface = null;
+            boolean interrupted = false;
+            while (mRendering) {
+                try {
+                    mLock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (surface != null) {
+            surface.release();
+        }
+    }
+}
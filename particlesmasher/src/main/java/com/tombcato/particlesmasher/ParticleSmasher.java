@@ -5,6 +5,10 @@ import android.content.Context;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.view.Display;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.Window;
@@ -14,9 +18,16 @@ import androidx.lifecycle.Lifecycle;
 import androidx.lifecycle.LifecycleEventObserver;
 import androidx.lifecycle.LifecycleOwner;
 
-import java.util.List;
+import com.tombcato.particlesmasher.particle.IdentityRegistry;
+import com.tombcato.particlesmasher.particle.ParticleArena;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+import com.tombcato.particlesmasher.particle.SummedAreaTable;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.WeakHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * <pre>
@@ -28,7 +39,23 @@ import java.util.concurrent.CopyOnWriteArrayList;
  * </pre>
  */
 
-public class ParticleSmasher extends View {
+public class ParticleSmasher extends View implements FrameClock.Callback {
+
+    // ==================== 粒子预算策略 ====================
+
+    /** 超出预算时加大新动画的网格间距（粒子半径同比放大），粒子更少、更大 */
+    public static final int BUDGET_COARSEN = 0;
+    /** 超出预算时保持网格不变，均匀抽掉新动画多余的粒子 */
+    public static final int BUDGET_THIN = 1;
+    /** 超出预算时先结束最早开始的动画（回调 onAnimatorEnd）腾出预算，仍不足时按 {@link #BUDGET_COARSEN} 处理 */
+    public static final int BUDGET_EVICT_OLDEST = 2;
+
+    // ==================== 渲染后端 ====================
+
+    /** 在本 View 的 onDraw 中绘制（默认），与应用自身的绘制共用主线程 */
+    public static final int BACKEND_VIEW = 0;
+    /** 在透明 TextureView 叠加层上由独立渲染线程绘制，主线程只负责动画状态 */
+    public static final int BACKEND_TEXTURE_VIEW = 1;
 
     // ==================== 单例缓存 ====================
     
@@ -38,12 +65,41 @@ public class ParticleSmasher extends View {
     /** ViewGroup 级别缓存（每个容器独立） */
     private static final WeakHashMap<ViewGroup, ParticleSmasher> sViewGroupCache = new WeakHashMap<>();
 
+    /** 粒子生成线程（进程内共享，单线程串行执行） */
+    private static ExecutorService sGenerateExecutor;
+    private static Handler sMainHandler;
+
     // ==================== 实例成员 ====================
     
-    private List<SmashAnimator> mAnimators = new CopyOnWriteArrayList<>();
+    private final IdentityRegistry<View, SmashAnimator> mAnimators = new IdentityRegistry<>();    // View -> 动画，按加入顺序
+    private SmashAnimator[] mFrameAnimators = new SmashAnimator[4];    // 逐帧遍历用的快照，复用以免创建迭代器
     private Canvas mCanvas;
+    private boolean mCapturing;                         // 正在截图，截取父容器时不绘制本 View 的粒子
+    private int[] mPixelBuffer = new int[0];            // 像素采样缓冲区，多次 start() 之间复用
+    private SummedAreaTable mAreaTable = new SummedAreaTable();  // SAMPLE_AREA 的积分图，与像素缓冲区共用锁
+    private final Object mPixelLock = new Object();     // 像素采样缓冲区的锁
+    private final SnapshotBitmapPool mBitmapPool = new SnapshotBitmapPool();   // 截图 Bitmap 池
+    private final ParticleArena mParticleArena = new ParticleArena();          // 粒子存储池
+    private final Runnable mTrimRunnable = mParticleArena::trim;               // 空闲裁剪
+    private int mParticleBudget;                        // 粒子总数上限，0 表示不限制
+    private int mBudgetPolicy = BUDGET_COARSEN;         // 超出预算时的处理策略
+    private int mLiveParticleCount;                     // 当前占用的粒子数
+    private final QualityGovernor mQualityGovernor = new QualityGovernor();    // 自适应画质
+    private long mAdvanceNanos;                         // 本帧推进动画的耗时，与绘制耗时一起计入画质统计
+    private final DirtyRegionPlanner mDirtyPlanner = new DirtyRegionPlanner();  // 多区域脏区
+    private final DirtyRegionStats mDirtyStats = new DirtyRegionStats();        // 脏区重绘统计
+    private ParticleRenderer mRenderer;                 // 独立渲染线程（BACKEND_TEXTURE_VIEW 时创建）
+    private boolean mMetricsEnabled;                    // 是否采集性能指标
+    private final FrameMetrics mFrameMetrics = new FrameMetrics();             // 逐帧指标，对象复用
+    private OnMetricsListener mMetricsListener;
+    private volatile long mDrawNanos;                   // 最近一次绘制的耗时，渲染线程也会写入
+    private long mRefreshPeriodNanos;                   // 屏幕刷新周期，用于统计掉帧
+    private long mLastMetricsFrameNanos;                // 上一帧的帧时间，帧时钟停止后清零
     private LifecycleEventObserver mLifecycleObserver;
 
+    /** 最后一个动画结束后，延迟多久裁剪粒子存储池 */
+    private static final long IDLE_TRIM_DELAY = 10_000L;
+
     // ==================== 静态工厂方法 ====================
     
     /**
@@ -94,6 +150,36 @@ public class ParticleSmasher extends View {
         return instance;
     }
 
+    /**
+     * 获取粒子生成线程池。所有 SmashAnimator 的后台生成任务在同一个低优先级线程上串行执行，
+     * 因此像素缓冲区、Bitmap 池等共享资源在生成阶段不会被并发使用
+     */
+    static synchronized ExecutorService generateExecutor() {
+        if (sGenerateExecutor == null) {
+            sGenerateExecutor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(() -> {
+                    Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                    runnable.run();
+                }, "ParticleSmasher-generate");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return sGenerateExecutor;
+    }
+
+    /**
+     * 获取主线程 Handler，后台生成的结果经由它交回主线程。
+     * 不使用 View.post：容器在生成期间脱离窗口时，View.post 的任务会留在容器的队列中直到再次附加，
+     * 借用的缓冲区和图集一直无法归还；Handler 的任务总会执行，过期的结果在回调中归还
+     */
+    static synchronized Handler mainHandler() {
+        if (sMainHandler == null) {
+            sMainHandler = new Handler(Looper.getMainLooper());
+        }
+        return sMainHandler;
+    }
+
     // ==================== 构造函数 ====================
     
     /**
@@ -164,10 +250,13 @@ public class ParticleSmasher extends View {
      */
     public synchronized void detach() {
         clear();
+        releaseRenderer();
         ViewGroup parent = (ViewGroup) getParent();
         if (parent != null) {
             parent.removeView(this);
         }
+        mBitmapPool.clear();
+        mParticleArena.clear();
         // 从缓存移除
         sActivityCache.values().remove(this);
         sViewGroupCache.values().remove(this);
@@ -181,7 +270,12 @@ public class ParticleSmasher extends View {
     @Override
     protected void onDetachedFromWindow() {
         super.onDetachedFromWindow();
+        FrameClock.getInstance().unregister(this);
+        mLastMetricsFrameNanos = 0;
         clear();
+        releaseRenderer();
+        mBitmapPool.clear();
+        mParticleArena.clear();
     }
 
     // ==================== 绘制逻辑 ====================
@@ -189,72 +283,485 @@ public class ParticleSmasher extends View {
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
-        
-        Rect combinedDirtyRect = new Rect();
-        boolean hasActiveAnimator = false;
-        
-        for (SmashAnimator animator : mAnimators) {
-            animator.draw(canvas);
-            Rect dirtyRect = animator.getDirtyRect();
-            if (!dirtyRect.isEmpty()) {
-                combinedDirtyRect.union(dirtyRect);
-                hasActiveAnimator = true;
+        if (mRenderer != null || mCapturing) {
+            // 由渲染线程绘制到叠加层；或正在对包含本 View 的父容器截图，截图中不应出现粒子
+            return;
+        }
+        long start = System.nanoTime();
+        int quality = mQualityGovernor.getLevel();
+        final int count = snapshotAnimators();
+        final SmashAnimator[] animators = mFrameAnimators;
+        for (int i = 0; i < count; i++) {
+            animators[i].draw(canvas, quality);
+            animators[i] = null;
+        }
+        long drawNanos = System.nanoTime() - start;
+        mDrawNanos = drawNanos;
+        mQualityGovernor.onFrame(mAdvanceNanos + drawNanos);
+        mAdvanceNanos = 0;
+    }
+
+    /**
+     * 共享帧时钟回调：推进所有动画的进度，然后按脏区请求重绘
+     * @param frameTimeNanos 当前帧时间
+     */
+    @Override
+    public void onFrame(long frameTimeNanos) {
+        // 先取帧间隔：帧时钟在 dispatchFrame 中停止时会清零上一帧时间
+        long interval = 0;
+        if (mMetricsEnabled) {
+            interval = mLastMetricsFrameNanos != 0 ? frameTimeNanos - mLastMetricsFrameNanos : 0;
+            mLastMetricsFrameNanos = frameTimeNanos;
+        }
+        long dirtyPixels = dispatchFrame(frameTimeNanos);
+        if (mMetricsEnabled) {
+            recordFrameMetrics(frameTimeNanos, interval, dirtyPixels);
+        }
+    }
+
+    /**
+     * 推进所有动画并请求重绘
+     * @param frameTimeNanos 当前帧时间
+     * @return 请求重绘的像素数，未请求或由渲染线程绘制时为 0
+     */
+    private long dispatchFrame(long frameTimeNanos) {
+        long start = System.nanoTime();
+        // 回调中可能结束或新增动画，遍历本帧开始时的快照；未开始（IDLE）的动画不推进
+        int count = snapshotAnimators();
+        SmashAnimator[] animators = mFrameAnimators;
+        boolean active = false;
+        for (int i = 0; i < count; i++) {
+            SmashAnimator animator = animators[i];
+            if (animator.needsFrames()) {
+                animator.onFrame(frameTimeNanos);
+                active |= animator.needsFrames();
             }
+            animators[i] = null;
         }
-        
-        if (hasActiveAnimator) {
-            int viewWidth = getWidth();
-            int viewHeight = getHeight();
-            int dirtyArea = combinedDirtyRect.width() * combinedDirtyRect.height();
-            int viewArea = viewWidth * viewHeight;
-            
-            if (viewArea > 0 && dirtyArea > viewArea * 0.8f) {
-                invalidate();
+        mAdvanceNanos = System.nanoTime() - start;
+        if (!active) {
+            // 全部结束（或只剩未开始的动画）：停止接收帧回调，并清除最后一帧的残留
+            FrameClock.getInstance().unregister(this);
+            mQualityGovernor.reset();
+            // 停止期间（包括只剩 IDLE 动画时）的空档不计入掉帧
+            mLastMetricsFrameNanos = 0;
+            if (mRenderer != null) {
+                // 通知渲染线程清空画面
+                mRenderer.publish(mFrameAnimators, 0);
             } else {
-                invalidate(combinedDirtyRect);
+                invalidate();
+            }
+            return 0;
+        }
+        if (mRenderer != null) {
+            // 推进与绘制都在渲染线程上完成，这里只发布仍有粒子的动画
+            count = snapshotAnimators();
+            animators = mFrameAnimators;
+            mRenderer.publish(animators, count);
+            for (int i = 0; i < count; i++) {
+                animators[i] = null;
             }
+            return 0;
+        }
+
+        // 收集每个动画的脏区，一帧只 invalidate 一次并集（框架本身也会合并同一帧的多次 invalidate）
+        final DirtyRegionPlanner planner = mDirtyPlanner;
+        planner.reset();
+        count = snapshotAnimators();
+        animators = mFrameAnimators;
+        for (int i = 0; i < count; i++) {
+            if (animators[i].hasParticles()) {
+                planner.add(animators[i].getDirtyRect());
+            }
+            animators[i] = null;
+        }
+        int regions = planner.getRegionCount();
+        if (regions == 0) {
+            // 仍在生成粒子，或粒子静止
+            return 0;
+        }
+
+        if (planner.plan(getWidth(), getHeight())) {
+            invalidate();
+            mDirtyStats.record(0, planner.getPixelCount());
+        } else {
+            invalidate(planner.getBounds());
+            mDirtyStats.record(regions, planner.getPixelCount());
+        }
+        return planner.getPixelCount();
+    }
+
+    /**
+     * 按加入顺序把当前动画复制到 {@link #mFrameAnimators}（容量不足时扩容），不创建迭代器或新数组。
+     * 调用方遍历后需把用过的元素置 null，避免持有已结束的动画
+     * @return 动画数量
+     */
+    private int snapshotAnimators() {
+        if (mFrameAnimators.length < mAnimators.size()) {
+            mFrameAnimators = new SmashAnimator[Math.max(mAnimators.size(), mFrameAnimators.length * 2)];
+        }
+        return mAnimators.copyValues(mFrameAnimators);
+    }
+
+    /**
+     * 填写本帧指标并通知回调（主线程，仅在启用指标时调用）
+     * @param interval 与上一帧的间隔，帧时钟重新启动后的首帧为 0
+     */
+    private void recordFrameMetrics(long frameTimeNanos, long interval, long dirtyPixels) {
+        final FrameMetrics metrics = mFrameMetrics;
+        if (mRefreshPeriodNanos == 0) {
+            Display display = getDisplay();
+            float refreshRate = display != null ? display.getRefreshRate() : 0;
+            mRefreshPeriodNanos = (long) (1_000_000_000L / (refreshRate >= 1 ? refreshRate : 60f));
+        }
+        if (interval > mRefreshPeriodNanos * 3 / 2) {
+            // 间隔内缺失的刷新周期数
+            metrics.droppedFrames += (interval + mRefreshPeriodNanos / 2) / mRefreshPeriodNanos - 1;
+        }
+        int particles = 0;
+        int visible = 0;
+        final int count = snapshotAnimators();
+        final SmashAnimator[] animators = mFrameAnimators;
+        for (int i = 0; i < count; i++) {
+            ParticleBuffer buffer = animators[i].getParticles();
+            if (buffer != null) {
+                particles += buffer.count;
+                visible += buffer.visibleCount;
+            }
+            animators[i] = null;
+        }
+        metrics.frameTimeNanos = frameTimeNanos;
+        metrics.frameIntervalNanos = interval;
+        metrics.animatorCount = count;
+        metrics.particleCount = particles;
+        // 独立渲染线程上的可见数不在主线程读取
+        metrics.visibleParticleCount = mRenderer != null ? 0 : visible;
+        metrics.reservedParticleCount = mLiveParticleCount;
+        metrics.advanceNanos = mAdvanceNanos;
+        metrics.drawNanos = mDrawNanos;
+        metrics.dirtyPixels = dirtyPixels;
+        metrics.qualityLevel = mQualityGovernor.getLevel();
+        metrics.frameCount++;
+        if (mMetricsListener != null) {
+            mMetricsListener.onFrameMetrics(metrics);
         }
     }
 
+    /**
+     * 记录一次绘制的耗时（渲染线程）
+     */
+    void recordDrawNanos(long drawNanos) {
+        mDrawNanos = drawNanos;
+    }
+
+    /**
+     * 动画生成粒子完成（主线程），通知启动阶段的指标
+     */
+    void onAnimatorReady(SmashAnimator animator) {
+        if (mMetricsEnabled) {
+            mFrameMetrics.culledParticles += animator.getCulledParticleCount();
+        }
+        if (mMetricsEnabled && mMetricsListener != null) {
+            mMetricsListener.onStartMetrics(animator, animator.getCaptureNanos(),
+                    animator.getGenerateNanos(), animator.getParticleCount());
+        }
+    }
+
+    /**
+     * 动画进入生成状态时调用（主线程）：注册到共享帧时钟，直到没有进行中的动画
+     */
+    void requestFrames() {
+        // 所有 ParticleSmasher 共用同一个帧时钟
+        FrameClock.getInstance().register(this);
+    }
+
     // ==================== 动画 API ====================
     
     public SmashAnimator with(View view) {
+        removeCallbacks(mTrimRunnable);
         stopAnimation(view);
         SmashAnimator animator = new SmashAnimator(this, view);
-        mAnimators.add(animator);
+        mAnimators.put(view, animator);
+        // 帧时钟在动画真正开始（进入生成状态）时才注册，见 requestFrames
         return animator;
     }
 
-    public void stopAnimation(View view) {
-        for (SmashAnimator animator : mAnimators) {
-            if (animator.getAnimatorView() == view) {
-                animator.stop();
-                mAnimators.remove(animator);
+    /**
+     * 批量粉碎多个 View：只对它们的共同父容器截图一次，并在一次后台任务中生成全部粒子，
+     * 适合列表、网格中的批量删除。参数设置与 {@link SmashAnimator} 相同，对全部 View 生效
+     * @param views 要粉碎的 View，重复的只粉碎一次
+     * @return 批量动画，调用 {@link SmashBatch#start()} 开始
+     */
+    public SmashBatch with(Collection<? extends View> views) {
+        SmashBatch batch = new SmashBatch(this);
+        // View 未重写 equals，LinkedHashSet 按身份去重并保持顺序
+        for (View view : new LinkedHashSet<View>(views)) {
+            if (view != null) {
+                batch.add(with(view));
             }
         }
+        return batch;
     }
 
-    public boolean isAnimating(View view) {
-        for (SmashAnimator animator : mAnimators) {
-            if (animator.getAnimatorView() == view) {
-                return true;
-            }
+    public void stopAnimation(View view) {
+        SmashAnimator animator = mAnimators.remove(view);
+        if (animator != null) {
+            animator.stop();
         }
-        return false;
+    }
+
+    public boolean isAnimating(View view) {
+        return mAnimators.containsKey(view);
     }
     
     public void removeAnimator(SmashAnimator animator) {
-        mAnimators.remove(animator);
+        if (mAnimators.remove(animator.getAnimatorView(), animator) && !animator.getDirtyRect().isEmpty()) {
+            // 擦除最后一帧的粒子
+            invalidate(animator.getDirtyRect());
+        }
+        scheduleIdleTrim();
     }
 
     public void clear() {
-        for (SmashAnimator animator : mAnimators) {
-            animator.stop();
-        }
+        // 可能在帧回调中调用，不能复用逐帧快照
+        SmashAnimator[] animators = new SmashAnimator[mAnimators.size()];
+        int count = mAnimators.copyValues(animators);
         mAnimators.clear();
+        for (int i = 0; i < count; i++) {
+            animators[i].stop();
+        }
+        synchronized (mPixelLock) {
+            mPixelBuffer = new int[0];
+            mAreaTable = new SummedAreaTable();
+        }
+        scheduleIdleTrim();
+        if (mRenderer != null) {
+            mRenderer.publish(animators, 0);
+        }
         invalidate();
     }
 
+    /**
+     * 没有动画时延迟裁剪粒子存储池，连续粉碎期间保持复用
+     */
+    private void scheduleIdleTrim() {
+        if (mAnimators.isEmpty()) {
+            removeCallbacks(mTrimRunnable);
+            postDelayed(mTrimRunnable, IDLE_TRIM_DELAY);
+        }
+    }
+
+    // ==================== 粒子预算 ====================
+
+    /**
+     * 设置粒子总数上限。所有动画（生成中、等待中、进行中）占用的粒子数之和不超过该值，
+     * 新动画超出剩余预算时按 {@link #setBudgetPolicy(int)} 的策略处理；已开始的动画不受影响
+     * @param maxParticles 粒子总数上限，0 表示不限制（默认）
+     */
+    public void setParticleBudget(int maxParticles) {
+        mParticleBudget = Math.max(0, maxParticles);
+    }
+
+    public int getParticleBudget() {
+        return mParticleBudget;
+    }
+
+    /**
+     * 设置超出预算时的处理策略
+     * @param policy {@link #BUDGET_COARSEN}（默认）, {@link #BUDGET_THIN}, {@link #BUDGET_EVICT_OLDEST}
+     */
+    public void setBudgetPolicy(int policy) {
+        mBudgetPolicy = policy;
+    }
+
+    public int getBudgetPolicy() {
+        return mBudgetPolicy;
+    }
+
+    /**
+     * 当前占用的粒子数
+     */
+    public int getLiveParticleCount() {
+        return mLiveParticleCount;
+    }
+
+    // ==================== 渲染后端 ====================
+
+    /**
+     * 设置渲染后端。{@link #BACKEND_TEXTURE_VIEW} 在本 View 之上叠加透明 TextureView，
+     * 粒子的推进和绘制在专用线程上按该线程自己的 vsync 进行，大面积粉碎不再占用主线程绘制时间；
+     * 需要窗口开启硬件加速。切换时会结束正在进行的动画
+     * @param backend {@link #BACKEND_VIEW}（默认）, {@link #BACKEND_TEXTURE_VIEW}
+     */
+    public void setRenderBackend(int backend) {
+        if (backend == getRenderBackend()) {
+            return;
+        }
+        clear();
+        if (backend == BACKEND_TEXTURE_VIEW) {
+            mRenderer = new ParticleRenderer(this);
+        } else {
+            releaseRenderer();
+        }
+        invalidate();
+    }
+
+    public int getRenderBackend() {
+        return mRenderer != null ? BACKEND_TEXTURE_VIEW : BACKEND_VIEW;
+    }
+
+    /**
+     * 是否由独立渲染线程推进并绘制粒子
+     */
+    boolean isRenderingOffThread() {
+        return mRenderer != null;
+    }
+
+    /**
+     * 归还动画的粒子缓冲区。渲染线程正在使用时延迟到该帧结束
+     */
+    void releaseParticles(ParticleBuffer buffer) {
+        if (mRenderer != null) {
+            mRenderer.releaseParticles(buffer);
+        } else {
+            mParticleArena.release(buffer);
+        }
+    }
+
+    /**
+     * 回收动画用完的形状图集（主线程）。图集是 ALPHA_8 位图，截图池只缓存 ARGB_8888，直接回收；
+     * 渲染线程正在绘制时延迟到本帧结束后回收
+     */
+    void releaseAtlas(SpriteAtlas atlas) {
+        if (mRenderer != null) {
+            mRenderer.releaseAtlas(atlas);
+        } else {
+            atlas.recycle();
+        }
+    }
+
+    private void releaseRenderer() {
+        if (mRenderer != null) {
+            mRenderer.release();
+            mRenderer = null;
+        }
+    }
+
+    // ==================== 自适应画质 ====================
+
+    /**
+     * 启用 / 停用自适应画质（默认停用）。启用后按每帧推进 + 绘制的耗时自动降级：
+     * 关闭抗锯齿 → 方形粒子 → 隔一个绘制 → 粗化淡出，耗时回落后逐级恢复
+     * @param enabled 是否启用
+     */
+    public void setAdaptiveQuality(boolean enabled) {
+        mQualityGovernor.setEnabled(enabled);
+    }
+
+    /**
+     * 设置画质等级变化回调
+     * @param listener 回调，传 null 取消
+     */
+    public void setOnQualityChangeListener(QualityGovernor.OnQualityChangeListener listener) {
+        mQualityGovernor.setOnQualityChangeListener(listener);
+    }
+
+    /**
+     * 获取画质调节器，可调整目标帧预算或读取当前等级
+     * @return 当前容器持有的画质调节器
+     */
+    public QualityGovernor getQualityGovernor() {
+        return mQualityGovernor;
+    }
+
+    // ==================== 性能指标 ====================
+
+    /**
+     * 性能指标回调（主线程）。传入的 {@link FrameMetrics} 是复用对象，只在回调内有效，需要保留时自行拷贝
+     */
+    public interface OnMetricsListener {
+        /**
+         * 每个帧时钟回调结束时调用
+         * @param metrics 本帧指标
+         */
+        void onFrameMetrics(FrameMetrics metrics);
+
+        /**
+         * 动画生成粒子完成时调用
+         * @param animator      动画
+         * @param captureNanos  截图耗时
+         * @param generateNanos 粒子生成耗时
+         * @param particleCount 生成的粒子数（已去掉透明剔除的，剔除数见 {@link SmashAnimator#getCulledParticleCount()}）
+         */
+        void onStartMetrics(SmashAnimator animator, long captureNanos, long generateNanos, int particleCount);
+    }
+
+    /**
+     * 启用 / 停用性能指标采集（默认停用）。停用时每帧只多一次布尔判断
+     * @param enabled 是否启用
+     */
+    public void setMetricsEnabled(boolean enabled) {
+        if (enabled && !mMetricsEnabled) {
+            mFrameMetrics.reset();
+            mLastMetricsFrameNanos = 0;
+        }
+        mMetricsEnabled = enabled;
+    }
+
+    /**
+     * 设置性能指标回调，非 null 时自动启用指标采集
+     * @param listener 回调，传 null 取消（不会停用采集）
+     */
+    public void setOnMetricsListener(OnMetricsListener listener) {
+        mMetricsListener = listener;
+        if (listener != null) {
+            setMetricsEnabled(true);
+        }
+    }
+
+    /**
+     * 获取最近一帧的性能指标，可轮询读取（主线程）。未启用采集时不更新
+     * @return 复用的指标对象
+     */
+    public FrameMetrics getFrameMetrics() {
+        return mFrameMetrics;
+    }
+
+    /**
+     * 新动画申请粒子预算（主线程）。EVICT_OLDEST 策略下会先结束最早的动画
+     * @param requester 申请方，不会被淘汰
+     * @param requested 按原始网格计算的粒子数
+     * @return 可分配的粒子数，不超过 requested
+     */
+    int admitParticles(SmashAnimator requester, int requested) {
+        if (mParticleBudget <= 0) {
+            return requested;
+        }
+        if (mBudgetPolicy == BUDGET_EVICT_OLDEST) {
+            // mAnimators 按加入顺序排列，队首最早；finish() 会移除动画，且可能在帧回调中调用，遍历独立的快照
+            SmashAnimator[] animators = new SmashAnimator[mAnimators.size()];
+            int count = mAnimators.copyValues(animators);
+            for (int i = 0; i < count; i++) {
+                SmashAnimator animator = animators[i];
+                if (mParticleBudget - mLiveParticleCount >= requested) {
+                    break;
+                }
+                if (animator != requester && animator.getReservedParticles() > 0) {
+                    animator.finish();
+                }
+            }
+        }
+        return Math.min(requested, Math.max(0, mParticleBudget - mLiveParticleCount));
+    }
+
+    /**
+     * 占用 / 归还粒子预算
+     * @param delta 正数为占用，负数为归还
+     */
+    void reserveParticles(int delta) {
+        mLiveParticleCount = Math.max(0, mLiveParticleCount + delta);
+    }
+
     // ==================== 工具方法 ====================
     
     public Rect getViewRect(View view) {
@@ -273,23 +780,105 @@ public class ParticleSmasher extends View {
     }
 
     public Bitmap createBitmapFromView(View view, Rect cropRect) {
+        return createBitmapFromView(view, cropRect, 1f);
+    }
+
+    /**
+     * 将 View 的指定区域按比例缩小绘制到 Bitmap
+     * @param view     目标 View
+     * @param cropRect 截取区域（相对于 View 自身左上角）
+     * @param scale    缩放比例 (0~1]，1 为原始分辨率
+     * @return 宽高为 cropRect 尺寸乘以 scale（至少 1px）的 Bitmap，无法截图时返回 null
+     */
+    public Bitmap createBitmapFromView(View view, Rect cropRect, float scale) {
         view.clearFocus();
         if (cropRect == null || cropRect.isEmpty() || view.getWidth() <= 0 || view.getHeight() <= 0) {
             return null;
         }
-        Bitmap bitmap = Bitmap.createBitmap(cropRect.width(), cropRect.height(), Bitmap.Config.ARGB_8888);
+        if (scale <= 0 || scale > 1) {
+            scale = 1f;
+        }
+        int width = Math.max(1, (int) Math.ceil(cropRect.width() * scale));
+        int height = Math.max(1, (int) Math.ceil(cropRect.height() * scale));
+        Bitmap bitmap = mBitmapPool.acquire(width, height);
         if (bitmap != null) {
             synchronized (mCanvas) {
                 Canvas canvas = mCanvas;
                 canvas.setBitmap(bitmap);
+                int saveCount = canvas.save();
+                canvas.scale(scale, scale);
                 canvas.translate(-cropRect.left, -cropRect.top);
-                view.draw(canvas);
+                mCapturing = true;
+                try {
+                    view.draw(canvas);
+                } finally {
+                    mCapturing = false;
+                }
+                canvas.restoreToCount(saveCount);
                 canvas.setBitmap(null);
             }
         }
         return bitmap;
     }
 
+    /**
+     * 获取截图 Bitmap 池，可调整容量上限或读取命中统计
+     * @return 当前容器持有的 Bitmap 池
+     */
+    public SnapshotBitmapPool getBitmapPool() {
+        return mBitmapPool;
+    }
+
+    /**
+     * 获取脏区重绘统计：每帧选择整体重绘还是按脏区并集重绘，以及请求重绘的像素数
+     * @return 当前容器的统计数据
+     */
+    public DirtyRegionStats getDirtyRegionStats() {
+        return mDirtyStats;
+    }
+
+    /**
+     * 获取粒子存储池，可调整空闲保留容量或读取分配统计
+     * @return 当前容器持有的粒子存储池
+     */
+    public ParticleArena getParticleArena() {
+        return mParticleArena;
+    }
+
+    /**
+     * 归还 {@link #createBitmapFromView} 生成的 Bitmap，供下次截图复用
+     * @param bitmap 不再使用的截图
+     */
+    public void releaseBitmap(Bitmap bitmap) {
+        mBitmapPool.release(bitmap);
+    }
+
+    /**
+     * 像素采样缓冲区的锁，使用 {@link #obtainPixelBuffer(int)} 返回的数组期间需持有
+     */
+    Object getPixelLock() {
+        return mPixelLock;
+    }
+
+    /**
+     * 获取像素采样缓冲区，容量不足时扩容，否则直接复用；调用方需持有 {@link #getPixelLock()}
+     * @param size 需要的像素数
+     * @return 长度不小于 size 的数组（内容未清空）
+     */
+    int[] obtainPixelBuffer(int size) {
+        if (mPixelBuffer.length < size) {
+            mPixelBuffer = new int[size];
+        }
+        return mPixelBuffer;
+    }
+
+    /**
+     * 获取复用的积分图；调用方需持有 {@link #getPixelLock()}
+     */
+    SummedAreaTable obtainAreaTable() {
+        return mAreaTable;
+    }
+
     public void reShowView(View view) {
         view.animate().cancel();
         view.setScaleX(1f);
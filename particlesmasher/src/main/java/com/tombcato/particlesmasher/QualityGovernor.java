@@ -0,0 +1,196 @@
+package com.tombcato.particlesmasher;
+
+/**
+ * <pre>
+ *     desc   : 自适应画质调节器
+ *              根据每帧 advance + draw 耗时的滑动平均，在目标帧预算内逐级降低/恢复画质。
+ *              等级是累进的：等级越高，前面所有等级的降级同时生效。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class QualityGovernor {
+
+    // ==================== 画质等级 ====================
+
+    /** 完整画质 */
+    public static final int QUALITY_FULL = 0;
+    /** 关闭抗锯齿 */
+    public static final int QUALITY_NO_ANTI_ALIAS = 1;
+    /** 圆形粒子改为方形绘制 */
+    public static final int QUALITY_SQUARE_SHAPE = 2;
+    /** 隔一个粒子绘制一个 */
+    public static final int QUALITY_SKIP_ALTERNATE = 3;
+    /** 透明度量化为 4 级（淡出变粗糙） */
+    public static final int QUALITY_COARSE_FADE = 4;
+
+    private static final int MAX_LEVEL = QUALITY_COARSE_FADE;
+
+    /** 默认目标帧预算：8ms，为 60Hz 下的布局/绘制/其他工作留出一半时间 */
+    public static final long DEFAULT_TARGET_FRAME_NANOS = 8_000_000L;
+
+    /** 滑动平均系数 */
+    private static final float SMOOTHING = 0.1f;
+    /** 连续超预算多少帧后降级 */
+    private static final int DOWNGRADE_FRAMES = 15;
+    /** 连续低于预算一半多少帧后升级 */
+    private static final int UPGRADE_FRAMES = 60;
+
+    /**
+     * 画质等级变化回调（主线程；{@link ParticleSmasher#BACKEND_TEXTURE_VIEW} 时在渲染线程）
+     */
+    public interface OnQualityChangeListener {
+        /**
+         * @param level             新的画质等级，{@link #QUALITY_FULL} ~ {@link #QUALITY_COARSE_FADE}
+         * @param averageFrameNanos 触发变化时每帧 advance + draw 耗时的滑动平均
+         */
+        void onQualityChanged(int level, long averageFrameNanos);
+    }
+
+    // onFrame 在 BACKEND_TEXTURE_VIEW 时由渲染线程调用，其余方法在主线程调用：
+    // 统计与等级的读-改-写都在 mLock 内完成，等级与开关另用 volatile 供每帧无锁读取
+    private final Object mLock = new Object();
+    private volatile boolean mEnabled;
+    private long mTargetFrameNanos = DEFAULT_TARGET_FRAME_NANOS;
+    private float mAverageNanos;
+    private volatile int mLevel = QUALITY_FULL;
+    private int mOverBudgetFrames;
+    private int mUnderBudgetFrames;
+    private volatile OnQualityChangeListener mListener;
+
+    /**
+     * 启用 / 停用自动调节，停用时恢复完整画质
+     */
+    public void setEnabled(boolean enabled) {
+        final int level;
+        final long average;
+        synchronized (mLock) {
+            mEnabled = enabled;
+            if (enabled || !setLevelLocked(QUALITY_FULL)) {
+                return;
+            }
+            level = mLevel;
+            average = (long) mAverageNanos;
+        }
+        notifyLevelChanged(level, average);
+    }
+
+    public boolean isEnabled() {
+        return mEnabled;
+    }
+
+    /**
+     * 设置目标帧预算
+     * @param nanos 每帧 advance + draw 的目标耗时（纳秒）
+     */
+    public void setTargetFrameNanos(long nanos) {
+        synchronized (mLock) {
+            mTargetFrameNanos = Math.max(1, nanos);
+        }
+    }
+
+    public long getTargetFrameNanos() {
+        synchronized (mLock) {
+            return mTargetFrameNanos;
+        }
+    }
+
+    public void setOnQualityChangeListener(OnQualityChangeListener listener) {
+        mListener = listener;
+    }
+
+    /**
+     * 当前画质等级
+     */
+    public int getLevel() {
+        return mLevel;
+    }
+
+    /**
+     * 每帧 advance + draw 耗时的滑动平均（纳秒）
+     */
+    public long getAverageFrameNanos() {
+        synchronized (mLock) {
+            return (long) mAverageNanos;
+        }
+    }
+
+    /**
+     * 记录一帧的耗时，必要时调整等级（主线程或渲染线程）
+     * @param frameNanos 本帧 advance + draw 耗时
+     */
+    void onFrame(long frameNanos) {
+        final int level;
+        final long average;
+        synchronized (mLock) {
+            mAverageNanos = mAverageNanos == 0 ? frameNanos : mAverageNanos + (frameNanos - mAverageNanos) * SMOOTHING;
+            if (!mEnabled) {
+                return;
+            }
+            boolean changed = false;
+            if (mAverageNanos > mTargetFrameNanos) {
+                mUnderBudgetFrames = 0;
+                if (++mOverBudgetFrames >= DOWNGRADE_FRAMES && mLevel < MAX_LEVEL) {
+                    changed = setLevelLocked(mLevel + 1);
+                }
+            } else if (mAverageNanos < mTargetFrameNanos / 2) {
+                mOverBudgetFrames = 0;
+                if (++mUnderBudgetFrames >= UPGRADE_FRAMES && mLevel > QUALITY_FULL) {
+                    changed = setLevelLocked(mLevel - 1);
+                }
+            } else {
+                mOverBudgetFrames = 0;
+                mUnderBudgetFrames = 0;
+            }
+            if (!changed) {
+                return;
+            }
+            level = mLevel;
+            average = (long) mAverageNanos;
+        }
+        notifyLevelChanged(level, average);
+    }
+
+    /**
+     * 没有动画时重置平均值，避免上一批动画的耗时影响下一批
+     */
+    void reset() {
+        synchronized (mLock) {
+            mAverageNanos = 0;
+            mOverBudgetFrames = 0;
+            mUnderBudgetFrames = 0;
+        }
+    }
+
+    /**
+     * 修改等级，调用方需持有 mLock
+     * @return 等级是否变化
+     */
+    private boolean setLevelLocked(int level) {
+        mOverBudgetFrames = 0;
+        mUnderBudgetFrames = 0;
+        if (level == mLevel) {
+            return false;
+        }
+        mLevel = level;
+        return true;
+    }
+
+    /**
+     * 在锁外回调，监听器中再调用本类的方法不会死锁
+     */
+    private void notifyLevelChanged(int level, long averageNanos) {
+        OnQualityChangeListener listener = mListener;
+        if (listener != null) {
+            listener.onQualityChanged(level, averageNanos);
+        }
+    }
+
+    /**
+     * {@link #QUALITY_COARSE_FADE} 下的透明度：量化为 4 级，取每级中间值；
+     * 完全透明保持为 0，不会被量化成可见
+     */
+    static int coarseAlpha(int alpha) {
+        return alpha == 0 ? 0 : (alpha & 0xC0) | 0x20;
+    }
+}
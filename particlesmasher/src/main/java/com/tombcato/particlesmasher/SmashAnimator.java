@@ -1,25 +1,29 @@
 package com.tombcato.particlesmasher;
 
-import android.animation.Animator;
-import android.animation.AnimatorListenerAdapter;
-import android.animation.ValueAnimator;
 import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Point;
+import android.graphics.Path;
 import android.graphics.Rect;
+import android.graphics.RectF;
+import android.os.Build;
 import android.view.View;
 import android.view.animation.AccelerateInterpolator;
 import android.view.animation.Interpolator;
 
-import com.tombcato.particlesmasher.particle.DropParticle;
-import com.tombcato.particlesmasher.particle.ExplosionParticle;
 import com.tombcato.particlesmasher.particle.FloatParticle;
 import com.tombcato.particlesmasher.particle.Particle;
+import com.tombcato.particlesmasher.particle.ParticleArena;
+import com.tombcato.particlesmasher.particle.ParticleBuffer;
+import com.tombcato.particlesmasher.particle.ParticleCurves;
+import com.tombcato.particlesmasher.particle.ParticleGenerator;
+import com.tombcato.particlesmasher.particle.ParticleRandom;
+import com.tombcato.particlesmasher.particle.ParticleRect;
 import com.tombcato.particlesmasher.particle.RiseParticle;
+import com.tombcato.particlesmasher.particle.SamplingGrid;
+import com.tombcato.particlesmasher.particle.SummedAreaTable;
 
-import java.util.Random;
 import java.util.concurrent.ThreadLocalRandom;
 
 /**
@@ -48,6 +52,24 @@ public class SmashAnimator {
     // 粒子形状
     public static final int SHAPE_CIRCLE = 0;        // 圆形（默认）
     public static final int SHAPE_SQUARE = 1;        // 方形
+    public static final int SHAPE_PATH = 2;          // 自定义 Path（通过 setShapePath 设置，始终从图集绘制）
+
+    // 截图方式
+    public static final int CAPTURE_FULL = 0;        // 原始分辨率截图，每个网格取中心像素（默认）
+    public static final int CAPTURE_GRID = 1;        // 按粒子网格缩小截图，每个网格只保留 supersample² 个像素
+
+    // 取色方式
+    public static final int SAMPLE_CENTER = 0;       // 每个网格取中心像素（CAPTURE_GRID 时取网格内像素的平均值）（默认）
+    public static final int SAMPLE_AREA = 1;         // 由积分图取网格内全部像素按 alpha 加权的平均颜色（含透明度）
+
+    // 渲染方式
+    public static final int RENDER_DIRECT = 0;       // 逐个粒子绘制（默认）
+    public static final int RENDER_BATCHED = 1;      // 按颜色/透明度/半径分桶，每桶一次 drawPoints
+    public static final int RENDER_ATLAS = 2;        // 从预先光栅化的形状图集逐个 drawBitmap，按粒子颜色着色
+    public static final int RENDER_VERTICES = 3;     // 全部粒子写入顶点数组，每个动画一次 drawVertices
+
+    /** 默认的多线程推进阈值：粒子数达到该值才切分到工作线程 */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 20000;
 
     public static final int SCALE_DOWN = 0; // 逐渐变小（默认）
     public static final int SCALE_SAME = 1; // 大小不变
@@ -55,19 +77,47 @@ public class SmashAnimator {
 
     private int mStyle=STYLE_EXPLOSION;             // 动画样式
     private int mShape=SHAPE_CIRCLE;                // 粒子形状
-
-    private ValueAnimator mValueAnimator;
+    private int mRenderMode=RENDER_DIRECT;          // 渲染方式
+    private int mCaptureMode=CAPTURE_FULL;          // 截图方式
+    private int mSupersample=2;                     // CAPTURE_GRID 时每个网格每边的采样像素数
+    private int mSamplingMode=SAMPLE_CENTER;        // 取色方式
+    private int mAlphaThreshold=0;                  // 透明度低于该值的网格不生成粒子，0 表示不剔除
+    private boolean mProceduralParticles=false;     // 粒子只保存颜色与网格编号，其余参数逐帧由哈希计算
+
+    // 动画状态（由 ParticleSmasher 转发的共享帧时钟驱动，不再每个动画持有 ValueAnimator）
+    private static final int STATE_IDLE = 0;           // 未开始 / 已停止 / 已结束
+    private static final int STATE_GENERATING = 1;     // 粒子生成中
+    private static final int STATE_DELAYED = 2;        // 粒子已就绪，等待 startDelay 结束
+    private static final int STATE_RUNNING = 3;        // 动画进行中
+
+    private int mState = STATE_IDLE;
+    private RenderState mRenderState;                  // 本次动画的绘制参数，粒子就绪时创建，可发布给渲染线程
+    private long mShakeEndNanos;                       // 抖动结束的帧时间，0 表示无抖动
+    private View mShakeView;                           // 正在抖动的 View
+    private float mAnimatedValue;                      // 当前动画值 (0 ~ mEndValue)
 
     private ParticleSmasher mContainer;                  // 绘制动画效果的View
     private View mAnimatorView;                        // 要进行爆炸动画的View
     
-    private Bitmap mBitmap;
     private Rect mRect;                                // 要进行动画的View在坐标系中的矩形
     
-    private Paint mPaint;                              // 绘制粒子的画笔
-    private Particle[] mParticles;                     // 粒子数组（一维）
-    private int mParticleCount;                        // 粒子数量
-    private final Rect mDirtyRect = new Rect();        // 当前帧的脏区
+    private Path mShapePath;                           // 自定义形状（SHAPE_PATH）
+    private SpriteAtlas mAtlas;                        // 本次动画的形状图集（RENDER_ATLAS 或 SHAPE_PATH 时生成），随粒子一起回收
+    private ParticleBuffer mParticles;                 // 粒子数据（SoA，无逐粒子对象），从容器的 ParticleArena 借用
+    private volatile int mGeneration;                  // 生成批次，stop()/start() 时递增，用于丢弃过期的后台结果
+    private long mStartTime;                           // start() 调用时刻 (nanoTime)，用于扣除生成耗时
+    private long mCaptureNanos;                        // 最近一次 start() 截图的耗时
+    private long mGenerateNanos;                       // 最近一次生成粒子的耗时（含图集/网格准备）
+    private int mReservedParticles;                    // 本次动画向容器申请的粒子预算
+    private int mCulledParticles;                      // 最近一次生成时因透明被剔除的粒子数
+    private boolean mAsyncGeneration = true;           // 是否在后台线程生成粒子
+    private boolean mParallelAdvance;                  // 是否多线程推进粒子
+    private int mParallelThreshold = DEFAULT_PARALLEL_THRESHOLD;  // 多线程推进的粒子数阈值
+    private ParallelAdvancer mAdvancer;                // 多线程推进器（启用后创建）
+    private final Rect mDirtyRect = new Rect();        // 当前帧的脏区（上一帧绘制区域 ∪ 本帧绘制区域）
+    private final Rect mDrawnRect = new Rect();        // 本帧粒子的绘制区域
+    private ParticleBatcher mBatcher;                  // 批量绘制器（RENDER_BATCHED 时创建），主线程绘制时下次复用
+    private ParticleMesh mMesh;                        // 网格绘制器（RENDER_VERTICES 时创建），主线程绘制时下次复用
     
     private float mEndValue = 1.5f;
 
@@ -78,7 +128,12 @@ public class SmashAnimator {
     private int mRadius=Utils.dp2Px(2);                // 粒子基础半径
     private int mParticleGap = 0;                      // 粒子间距 (默认为0, 即紧密相连)
     private boolean mEnableHideAnimation = true;       // 是否启用抖动+缩放动画
+    private boolean mSeeded;                           // 是否使用固定种子
+    private long mSeed;                                // 固定种子（setSeed）
+    private final ParticleRandom mShakeRandom = new ParticleRandom(0);    // 抖动随机数（主线程）
     private Interpolator mInterpolator = new AccelerateInterpolator(0.6f);  // 插值器
+    private float[] mInterpolatorTable;                // 插值器采样表，发布后不再修改
+    private Interpolator mBakedInterpolator;           // 采样表对应的插值器
 
     // 随机延迟系数
     private float mStartRandomness = 0.1f;  // 默认 startOffset = 0.1 * random
@@ -98,8 +153,6 @@ public class SmashAnimator {
         // 注意：不在 init 中创建 bitmap，因为 start() 时会重新创建
         // 确保 View 的状态正确即可
         mRect = mContainer.getViewRect(animatorView);
-        initValueAnimator();
-        initPaint();
     }
 
     /**
@@ -110,18 +163,6 @@ public class SmashAnimator {
         return mAnimatorView;
     }
 
-    private void initValueAnimator() {
-        mValueAnimator = new ValueAnimator();
-        mValueAnimator.setFloatValues(0F, mEndValue);
-        mValueAnimator.setInterpolator(mInterpolator);
-    }
-
-    private void initPaint() {
-        mPaint = new Paint();
-        mPaint.setAntiAlias(true);
-    }
-
-
     /**
      *   爆炸动画回调事件
      */
@@ -206,7 +247,8 @@ public class SmashAnimator {
 
     /**
      *   设置粒子形状
-     *   @param shape  形状，{@link #SHAPE_CIRCLE} 圆形, {@link #SHAPE_SQUARE} 方形
+     *   @param shape  形状，{@link #SHAPE_CIRCLE} 圆形, {@link #SHAPE_SQUARE} 方形,
+     *                 {@link #SHAPE_PATH} 自定义（需先 {@link #setShapePath(Path)}）
      *   @return      链式调用，因此返回本身
      */
     public SmashAnimator setShape(int shape){
@@ -214,6 +256,122 @@ public class SmashAnimator {
         return this;
     }
 
+    /**
+     *   设置自定义粒子形状（如星形、三角形），并切换到 {@link #SHAPE_PATH}。
+     *   形状在生成粒子时按半径级预先光栅化到图集，每帧不再执行 drawPath
+     *   @param path  以 (0, 0) 为中心、半径 1 为范围的路径（位于 [-1, 1] 方框内），start() 之后不要再修改
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setShapePath(Path path){
+        if (path != null) {
+            this.mShapePath = path;
+            this.mShape = SHAPE_PATH;
+        }
+        return this;
+    }
+
+    /**
+     *   设置截图方式
+     *   @param captureMode  {@link #CAPTURE_FULL} 原始分辨率（默认），
+     *                       {@link #CAPTURE_GRID} 按粒子网格缩小截图，内存与 view.draw 开销约降为 (supersample/step)²
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setCaptureMode(int captureMode){
+        this.mCaptureMode = captureMode;
+        return this;
+    }
+
+    /**
+     *   设置 {@link #CAPTURE_GRID} 的超采样倍数，网格颜色取 supersample×supersample 像素的平均值
+     *   @param supersample  每个网格每边的采样像素数，默认 2，1 即每个网格一个像素
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setSupersample(int supersample){
+        this.mSupersample = Math.max(1, supersample);
+        return this;
+    }
+
+    /**
+     *   设置粒子的取色方式
+     *   @param samplingMode  {@link #SAMPLE_CENTER} 取网格中心像素（默认）,
+     *                        {@link #SAMPLE_AREA} 取网格内全部像素的平均颜色：生成时对截图构建一次积分图，每个网格 O(1) 查询，
+     *                        文字、细线不再走样，较大的粒子间距也能保留画面，可用更少的粒子达到相同效果
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setSamplingMode(int samplingMode){
+        this.mSamplingMode = samplingMode;
+        return this;
+    }
+
+    /**
+     *   设置透明剔除阈值。取色后透明度低于阈值的网格不生成粒子，其余粒子连续存放，
+     *   图标、圆角卡片等透明区域较多的 View 逐帧只推进、绘制可见的粒子；剔除的粒子数见 {@link #getCulledParticleCount()}
+     *   @param alpha  0~255，默认 0（不剔除，与旧版本一样为透明网格也生成粒子）；1 只剔除完全透明的网格。
+     *                 剔除后透明区域不再有粒子飞散、占用的粒子预算也会减少，按需开启
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setAlphaThreshold(int alpha){
+        this.mAlphaThreshold = Math.max(0, Math.min(255, alpha));
+        return this;
+    }
+
+    /**
+     *   设置是否使用程序化粒子。开启后每个粒子只保存颜色和网格编号，半径、速度、起止时间等随机参数
+     *   每帧由 (种子, 网格编号) 的整数哈希重新计算，每个粒子的内存从 60 字节降到 24 字节（逐帧的位置、半径、透明度仍需保存供绘制），
+     *   代价是逐帧推进的耗时约为原来的 3~4 倍，适合粒子数很多、内存紧张的场景。相同种子下的效果与关闭时不同，但同样可复现
+     *   @param procedural  默认 false
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setProceduralParticles(boolean procedural){
+        this.mProceduralParticles = procedural;
+        return this;
+    }
+
+    /**
+     *   设置渲染方式
+     *   @param renderMode  {@link #RENDER_DIRECT} 逐个绘制（默认，颜色精确）,
+     *                      {@link #RENDER_BATCHED} 分桶批量绘制（颜色/透明度/半径有量化误差，绘制调用数大幅减少）,
+     *                      {@link #RENDER_ATLAS} 从预先光栅化的形状图集绘制（半径按级采样，不再逐个光栅化圆形）,
+     *                      {@link #RENDER_VERTICES} 每个动画一次 drawVertices（硬件加速下需 Android 10+，更低版本回退为逐个绘制）
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setRenderMode(int renderMode){
+        this.mRenderMode = renderMode;
+        return this;
+    }
+
+    /**
+     *   设置是否在后台线程生成粒子
+     *   @param async  true=后台生成（默认），主线程只负责截图，生成耗时由 startDelay 掩盖；
+     *                 false=在 start() 中同步生成
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setAsyncGeneration(boolean async){
+        this.mAsyncGeneration = async;
+        return this;
+    }
+
+    /**
+     *   设置是否多线程推进粒子（默认关闭）。开启后，粒子数达到阈值的动画把每帧的推进切分到工作线程，
+     *   写入后台缓冲区，主线程只负责绘制；画面晚一帧，每帧的粒子状态与单线程完全一致
+     *   @param parallel  true=多线程推进，false=在主线程推进
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setParallelAdvance(boolean parallel){
+        this.mParallelAdvance = parallel;
+        return this;
+    }
+
+    /**
+     *   设置多线程推进的粒子数阈值，低于该值仍在主线程推进
+     *   @param particles  粒子数，默认 {@link #DEFAULT_PARALLEL_THRESHOLD}
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setParallelThreshold(int particles){
+        this.mParallelThreshold = Math.max(1, particles);
+        return this;
+    }
+
     /**
      *   设置是否启用抖动+缩放隐藏动画
      *   @param enable  true=启用（默认），false=禁用（View直接透明消失）
@@ -224,6 +382,18 @@ public class SmashAnimator {
         return this;
     }
 
+    /**
+     *   设置随机数种子。相同的种子、View 与参数生成逐位相同的粒子，抖动序列也相同，
+     *   用于复现动画或在相同负载下对比性能；默认每次 start() 随机取种子
+     *   @param seed  种子
+     *   @return      链式调用，因此返回本身
+     */
+    public SmashAnimator setSeed(long seed){
+        this.mSeed = seed;
+        this.mSeeded = true;
+        return this;
+    }
+
     /**
      *   设置动画插值器
      *   @param interpolator  插值器，控制动画速度曲线
@@ -232,7 +402,6 @@ public class SmashAnimator {
     public SmashAnimator setInterpolator(Interpolator interpolator){
         if (interpolator != null) {
             this.mInterpolator = interpolator;
-            mValueAnimator.setInterpolator(mInterpolator);
         }
         return this;
     }
@@ -311,10 +480,13 @@ public class SmashAnimator {
      * 停止动画并恢复 View 状态
      */
     public void stop() {
-        if (mValueAnimator != null) {
-            mValueAnimator.removeAllListeners();
-            mValueAnimator.cancel();
-        }
+        // 使正在后台生成的结果失效
+        mGeneration++;
+        mState = STATE_IDLE;
+        mShakeEndNanos = 0;
+        // 生成中的缓冲区由生成完成回调归还，这里只归还已发布的
+        releaseParticles();
+        releaseBudget();
         if (mAnimatorView != null) {
             mAnimatorView.animate().cancel();
             mAnimatorView.setScaleX(1f);
@@ -336,13 +508,61 @@ public class SmashAnimator {
             return;
         }
         
-        // 防止动画正在运行时重复启动
-        if (mValueAnimator.isRunning()) {
+        // 计算 View 的可见区域 (Crop Rect)
+        int[] location = new int[2];
+        // View 在屏幕上的可见区域
+        Rect globalVisibleRect = new Rect();
+        // 防止动画正在运行（或粒子正在生成）时重复启动；如果不可见，直接返回
+        if (!prepareCapture(location, globalVisibleRect)) {
             return;
         }
-        
 
-        
+        // 计算裁剪区域 (相对于 View 自身左上角)
+        Rect cropRect = new Rect();
+        cropRect.left = globalVisibleRect.left - location[0];
+        cropRect.top = globalVisibleRect.top - location[1];
+        cropRect.right = cropRect.left + globalVisibleRect.width();
+        cropRect.bottom = cropRect.top + globalVisibleRect.height();
+
+        // 按容器的粒子预算确定网格（可能加大间距或抽稀）
+        final SamplingGrid grid = admitGrid(cropRect.width(), cropRect.height());
+
+        // 每次start时重新获取View的bitmap和位置，确保数据准确
+        // CAPTURE_GRID 下按 supersample/step 缩小截图，只保留粒子采样需要的分辨率
+        final long captureStart = System.nanoTime();
+        final Bitmap bitmap = mContainer.createBitmapFromView(mAnimatorView, cropRect, (float) grid.cellPixels / grid.step);
+        mCaptureNanos = System.nanoTime() - captureStart;
+        if (bitmap == null) {
+            releaseBudget();
+            return;
+        }
+
+        // 主线程只负责截图；像素读取与粒子生成交给后台线程，期间 hideView 的抖动掩盖生成耗时
+        final PendingGeneration pending = beginGeneration(grid);
+
+        if (mAsyncGeneration) {
+            ParticleSmasher.generateExecutor().execute(() -> {
+                calculateParticles(pending, bitmap);
+                ParticleSmasher.mainHandler().post(() -> onParticlesReady(pending));
+            });
+        } else {
+            calculateParticles(pending, bitmap);
+            onParticlesReady(pending);
+        }
+    }
+
+    /**
+     * 截图前的准备（主线程）：恢复 View 的正常显示状态，计算 View 在屏幕上的位置与可见区域
+     * @param location       输出 View 左上角在屏幕上的位置
+     * @param visibleRect    输出 View 在屏幕上的可见区域
+     * @return 是否可以开始（未在进行中且 View 可见）
+     */
+    boolean prepareCapture(int[] location, Rect visibleRect) {
+        if (mState != STATE_IDLE) {
+            return false;
+        }
+        bakeInterpolator();
+
         // 确保 View 处于正常可见状态再创建 bitmap
         // 如果 View 已经被隐藏（scale=0），需要先恢复
         if (mAnimatorView.getScaleX() == 0 || mAnimatorView.getAlpha() == 0) {
@@ -353,138 +573,757 @@ public class SmashAnimator {
             mAnimatorView.setTranslationX(0f);
             mAnimatorView.setTranslationY(0f);
         }
-        
-        // 计算 View 的可见区域 (Crop Rect)
-        int[] location = new int[2];
         mAnimatorView.getLocationOnScreen(location);
-        // View 在屏幕上的完整区域
-        Rect fullViewRect = new Rect(location[0], location[1], location[0] + mAnimatorView.getWidth(), location[1] + mAnimatorView.getHeight());
-        // View 在屏幕上的可见区域
-        Rect globalVisibleRect = new Rect();
-        boolean isVisible = mAnimatorView.getGlobalVisibleRect(globalVisibleRect);
-        
-        // 如果不可见，直接返回
-        if (!isVisible || globalVisibleRect.isEmpty()) {
-            return;
+        return mAnimatorView.getGlobalVisibleRect(visibleRect) && !visibleRect.isEmpty();
+    }
+
+    /**
+     * 批量粉碎时记录分摊到本动画的截图耗时
+     */
+    void setCaptureNanos(long captureNanos) {
+        mCaptureNanos = captureNanos;
+    }
+
+    /**
+     * 一次生成的参数，start() 时在主线程确定，交给生成线程使用
+     */
+    static final class PendingGeneration {
+        final SmashAnimator animator;
+        final int generation;           // 生成批次，已过期时跳过生成
+        final ParticleBuffer buffer;    // 写入的粒子缓冲区
+        final ParticleRect rect;        // View 在容器中的可见区域
+        final SamplingGrid grid;        // 采样网格
+        final ParticleRandom random;    // 本次生成使用的随机数
+        final float endValue;           // 动画的结束值
+        final int shape;                // 粒子形状
+        final int renderMode;           // 渲染方式
+        final Path shapePath;           // 自定义形状
+        // 生成参数在主线程复制，生成线程不读动画的字段，期间修改参数只影响下一次 start()
+        final int kind;                 // 粒子类型
+        final int direction;            // 运动方向
+        final Particle.ScaleMode scaleMode;     // 缩放模式
+        final boolean procedural;       // 是否逐帧计算粒子参数
+        final int samplingMode;         // 取色方式
+        final float horizontalMultiple; // 粒子水平变化幅度
+        final float verticalMultiple;   // 粒子垂直变化幅度
+        final float startRandomness;    // 开始时间的随机幅度
+        final float endRandomness;      // 淡出时间的随机幅度
+        long generateNanos;             // 生成耗时
+
+        // 生成线程准备的绘制器：start() 时传入可复用的网格 / 批量绘制器，粒子就绪后在主线程装配到动画上
+        SpriteAtlas atlas;
+        ParticleMesh mesh;
+        ParticleBatcher batcher;
+
+        PendingGeneration(SmashAnimator animator, int generation, ParticleBuffer buffer, ParticleRect rect,
+                          SamplingGrid grid, ParticleRandom random) {
+            this.animator = animator;
+            this.generation = generation;
+            this.buffer = buffer;
+            this.rect = rect;
+            this.grid = grid;
+            this.random = random;
+            this.endValue = animator.mEndValue;
+            this.shape = animator.mShape;
+            this.renderMode = animator.mRenderMode;
+            this.shapePath = animator.mShapePath;
+            this.kind = particleKind(animator.mStyle);
+            this.direction = particleDirection(animator.mStyle);
+            this.scaleMode = animator.mScaleMode;
+            this.procedural = animator.mProceduralParticles;
+            this.samplingMode = animator.mSamplingMode;
+            this.horizontalMultiple = animator.mHorizontalMultiple;
+            this.verticalMultiple = animator.mVerticalMultiple;
+            this.startRandomness = animator.mStartRandomness;
+            this.endRandomness = animator.mEndRandomness;
         }
+    }
 
-        // 计算裁剪区域 (相对于 View 自身左上角)
-        Rect cropRect = new Rect();
-        cropRect.left = globalVisibleRect.left - fullViewRect.left;
-        cropRect.top = globalVisibleRect.top - fullViewRect.top;
-        cropRect.right = cropRect.left + globalVisibleRect.width();
-        cropRect.bottom = cropRect.top + globalVisibleRect.height();
+    /**
+     * 一次动画的绘制参数，粒子就绪时在主线程创建，之后不再修改。
+     * {@link ParticleSmasher#BACKEND_TEXTURE_VIEW} 时发布给渲染线程，渲染线程只读本对象，不读动画的字段；
+     * 期间修改动画的参数只影响下一次 start()
+     */
+    static final class RenderState {
+        final ParticleBuffer buffer;
+        final long animationStartNanos;     // 粒子动画开始的帧时间
+        final long durationNanos;           // 动画时长
+        final float endValue;               // 动画的结束值
+        final float[] interpolatorTable;    // 插值器采样表
+        final int shape;                    // 粒子形状
+        final int renderMode;               // 渲染方式
+        final SpriteAtlas atlas;            // 形状图集
+        final ParticleMesh mesh;            // 网格绘制器
+        final ParticleBatcher batcher;      // 批量绘制器
+        private final Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);  // 绘制粒子的画笔
+        private final Rect spriteSrc = new Rect();                     // 图集中的格子
+        private final RectF spriteDst = new RectF();                   // 格子绘制到的位置
+
+        RenderState(PendingGeneration pending, long animationStartNanos, long durationNanos, float[] interpolatorTable) {
+            this.buffer = pending.buffer;
+            this.animationStartNanos = animationStartNanos;
+            this.durationNanos = durationNanos;
+            this.endValue = pending.endValue;
+            this.interpolatorTable = interpolatorTable;
+            this.shape = pending.shape;
+            this.renderMode = pending.renderMode;
+            this.atlas = pending.atlas;
+            this.mesh = pending.mesh;
+            this.batcher = pending.batcher;
+        }
 
-        // 每次start时重新获取View的bitmap和位置，确保数据准确
-        mBitmap = mContainer.createBitmapFromView(mAnimatorView, cropRect);
-        if (mBitmap == null) {
-            return;
+        /**
+         * 帧时间对应的动画值：startDelay 期间为 0，结束后停在终值
+         */
+        float valueAt(long frameTimeNanos) {
+            float fraction = (float) (frameTimeNanos - animationStartNanos) / durationNanos;
+            if (fraction < 0) {
+                return 0;
+            }
+            return ParticleCurves.sample(interpolatorTable, fraction) * endValue;
+        }
+
+        /**
+         * 在渲染线程上绘制一帧：按渲染帧时间计算动画值，推进并绘制粒子（{@link ParticleSmasher#BACKEND_TEXTURE_VIEW}）
+         * @param canvas          Surface 的画板
+         * @param frameTimeNanos  渲染线程的帧时间
+         * @param quality         画质等级
+         */
+        void render(Canvas canvas, long frameTimeNanos, int quality) {
+            if (buffer.count <= 0) {
+                return;
+            }
+            buffer.advance(valueAt(frameTimeNanos), endValue);
+            draw(canvas, quality);
+        }
+
+        /**
+         * 是否从形状图集绘制：自定义形状始终使用图集，圆形/方形在 RENDER_ATLAS 时使用
+         */
+        boolean useAtlas() {
+            return atlas != null && (shape == SHAPE_PATH || renderMode == RENDER_ATLAS);
+        }
+
+        /**
+         * 包围盒外扩的像素数：抗锯齿边缘 1px；图集格子含边距；批量绘制时点的大小取桶的代表半径，再扩展一级
+         */
+        float boundsPadding() {
+            if (useAtlas()) {
+                // 图集格子含边距，按最小一级放大后约多出 1.5px
+                return 2;
+            }
+            if (batcher != null && renderMode == RENDER_BATCHED) {
+                return 1 + batcher.getRadiusPadding();
+            }
+            return 1;
         }
+
+        /**
+         * 按指定画质绘制已推进的粒子
+         */
+        void draw(Canvas canvas, int quality) {
+            final Paint paint = this.paint;
+            final boolean antiAlias = quality < QualityGovernor.QUALITY_NO_ANTI_ALIAS;
+            final boolean square = shape == SHAPE_SQUARE || quality >= QualityGovernor.QUALITY_SQUARE_SHAPE;
+            final int stride = quality >= QualityGovernor.QUALITY_SKIP_ALTERNATE ? 2 : 1;
+            final boolean coarseFade = quality >= QualityGovernor.QUALITY_COARSE_FADE;
+
+            if (useAtlas()) {
+                int row = SpriteAtlas.ROW_CIRCLE;
+                if (square) {
+                    row = SpriteAtlas.ROW_SQUARE;
+                } else if (shape == SHAPE_PATH) {
+                    row = SpriteAtlas.ROW_PATH;
+                }
+                drawSprites(canvas, row, antiAlias, stride, coarseFade);
+                return;
+            }
+            if (mesh != null && renderMode == RENDER_VERTICES
+                    && (!canvas.isHardwareAccelerated() || Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q)) {
+                // 一次 drawVertices；硬件加速在 Android 10 之前不支持 drawVertices，回退到逐个绘制
+                mesh.draw(canvas, buffer, square, antiAlias, stride, coarseFade);
+                return;
+            }
+            if (batcher != null && renderMode == RENDER_BATCHED) {
+                // 分桶批量绘制；透明度本身已分桶，无需再做粗化
+                batcher.draw(canvas, buffer, square, antiAlias, stride);
+                return;
+            }
+            paint.setAntiAlias(antiAlias);
+
+            // 优化：直接遍历基本类型数组，数据连续存放，cache 友好
+            final int count = buffer.count;
+            final int[] colors = buffer.color;
+            final float[] alphas = buffer.alpha;
+            final float[] xs = buffer.cx;
+            final float[] ys = buffer.cy;
+            final float[] radii = buffer.radius;
+
+            for (int i = 0; i < count; i += stride) {
+                float alpha = alphas[i];
+                if (alpha > 0) {
+                    float cx = xs[i];
+                    float cy = ys[i];
+                    float radius = radii[i];
+                    // 优化：直接取颜色的高 8 位，避免每次调用 Color.alpha()
+                    int a = (int) ((colors[i] >>> 24) * alpha);
+                    if (coarseFade) {
+                        a = QualityGovernor.coarseAlpha(a);
+                    }
+                    if (a == 0) {
+                        continue;
+                    }
+                    paint.setColor(colors[i]);
+                    paint.setAlpha(a);
+
+                    if (square) {
+                        // 方形：以 (cx, cy) 为中心，radius 为半边长
+                        canvas.drawRect(cx - radius, cy - radius, cx + radius, cy + radius, paint);
+                    } else {
+                        // 圆形（默认）
+                        canvas.drawCircle(cx, cy, radius, paint);
+                    }
+                }
+            }
+        }
+
+        /**
+         * 从形状图集逐个绘制粒子：ALPHA_8 图集按画笔颜色着色，每个粒子一次 drawBitmap
+         */
+        private void drawSprites(Canvas canvas, int row, boolean filter, int stride, boolean coarseFade) {
+            final SpriteAtlas atlas = this.atlas;
+            final Paint paint = this.paint;
+            final Bitmap bitmap = atlas.getBitmap();
+            final Rect src = spriteSrc;
+            final RectF dst = spriteDst;
+            final int count = buffer.count;
+            final int[] colors = buffer.color;
+            final float[] alphas = buffer.alpha;
+            final float[] xs = buffer.cx;
+            final float[] ys = buffer.cy;
+            final float[] radii = buffer.radius;
+            paint.setFilterBitmap(filter);
+
+            for (int i = 0; i < count; i += stride) {
+                float alpha = alphas[i];
+                float radius = radii[i];
+                if (alpha <= 0 || radius <= 0) {
+                    continue;
+                }
+                int a = (int) ((colors[i] >>> 24) * alpha);
+                if (coarseFade) {
+                    a = QualityGovernor.coarseAlpha(a);
+                }
+                if (a == 0) {
+                    continue;
+                }
+                paint.setColor(colors[i]);
+                paint.setAlpha(a);
+                float half = atlas.getSprite(row, radius, src);
+                float cx = xs[i];
+                float cy = ys[i];
+                dst.set(cx - half, cy - half, cx + half, cy + half);
+                canvas.drawBitmap(bitmap, src, dst, paint);
+            }
+        }
+    }
+
+    /**
+     * 截图完成后进入生成状态并开始隐藏 View（主线程）
+     * @param grid 采样网格
+     * @return 交给生成线程的参数
+     */
+    PendingGeneration beginGeneration(SamplingGrid grid) {
         // mRect 将是 mAnimatorView 在 ParticleSmasher 中的可见区域，正好对应 cropRect 的 bitmap
         mRect = mContainer.getViewRect(mAnimatorView);
-        setValueAnimator();
-        calculateParticles(mBitmap);
+        final ParticleRect rect = new ParticleRect(mRect.left, mRect.top, mRect.right, mRect.bottom);
+        // 每次 start() 一个独立的随机数，后台生成期间再次 start() 也不会打乱序列；抖动的种子取自同一序列
+        final ParticleRandom random = new ParticleRandom(mSeeded ? mSeed : ThreadLocalRandom.current().nextLong());
+        mShakeRandom.setSeed(random.nextLong());
+        // 从容器的粒子存储池借用缓冲区，动画结束或 stop() 时归还
+        final ParticleBuffer buffer = mContainer.getParticleArena().acquire(grid.count, mProceduralParticles);
+        PendingGeneration pending = new PendingGeneration(this, ++mGeneration, buffer, rect, grid, random);
+        // 网格与批量绘制器在 prepare 时会被改写，渲染线程可能仍在用上一次的实例绘制，因此只在主线程绘制时复用
+        if (!mContainer.isRenderingOffThread()) {
+            pending.mesh = mMesh;
+            pending.batcher = mBatcher;
+        }
+        mState = STATE_GENERATING;
+        mStartTime = System.nanoTime();
         hideView(mAnimatorView, mStartDelay);
-        mValueAnimator.start();
+        mContainer.requestFrames();
+        return pending;
+    }
+
+    /**
+     * 粒子生成完成（主线程）。若期间调用过 stop()/clear()，结果已过期，直接丢弃并归还缓冲区
+     * @param pending 本批次的生成参数
+     */
+    void onParticlesReady(PendingGeneration pending) {
+        final ParticleBuffer buffer = pending.buffer;
+        if (pending.generation != mGeneration || mState != STATE_GENERATING) {
+            final ParticleArena arena = mContainer.getParticleArena();
+            arena.release(buffer);
+            if (!mContainer.isAttachedToWindow()) {
+                // 生成期间容器已脱离窗口（其存储池已在 onDetachedFromWindow 中清空），不再保留
+                arena.clear();
+            }
+            if (pending.atlas != null) {
+                // 未发布过，直接回收
+                pending.atlas.recycle();
+            }
+            return;
+        }
+        releaseParticles();
+        mParticles = buffer;
+        // 剔除的粒子不再占用预算
+        mCulledParticles = pending.grid.count - buffer.count;
+        if (mCulledParticles > 0 && mReservedParticles > 0) {
+            int released = Math.min(mCulledParticles, mReservedParticles);
+            mReservedParticles -= released;
+            mContainer.reserveParticles(-released);
+        }
+        // 图集随本次粒子回收；网格与批量绘制器留给下次复用
+        mAtlas = pending.atlas;
+        if (pending.mesh != null) {
+            mMesh = pending.mesh;
+        }
+        if (pending.batcher != null) {
+            mBatcher = pending.batcher;
+        }
+        // 从 start() 起已经过去的时间计入 startDelay，保证整体时序不变
+        mAnimatedValue = 0;
+        long animationStartNanos = Math.max(System.nanoTime(), mStartTime + mStartDelay * 1_000_000L);
+        mRenderState = new RenderState(pending, animationStartNanos, Math.max(1, mDuration) * 1_000_000L,
+                mInterpolatorTable);
+        mState = STATE_DELAYED;
+        // startDelay 期间粒子静止，先按动画值 0 计算一次
+        mDrawnRect.setEmpty();
+        advanceParticles();
         mContainer.invalidate();
+        mContainer.onAnimatorReady(this);
     }
 
     /**
-     *   设置动画参数
+     * 帧时钟回调（主线程），根据共享的帧时间推进抖动与动画进度
+     * @param frameTimeNanos 当前帧时间
      */
-    private void setValueAnimator() {
-        mValueAnimator.setDuration(mDuration);
-        mValueAnimator.setStartDelay(mStartDelay);
-        // 先清除旧的 listener，防止重复添加
-        mValueAnimator.removeAllListeners();
-        mValueAnimator.addListener(new AnimatorListenerAdapter() {
-            @Override
-            public void onAnimationEnd(Animator animation) {
-                if (mOnAnimatorLIstener != null) {
-                    mOnAnimatorLIstener.onAnimatorEnd();
-                }
-                mContainer.removeAnimator(SmashAnimator.this);
+    void onFrame(long frameTimeNanos) {
+        if (mShakeEndNanos != 0) {
+            shakeView(frameTimeNanos);
+        }
+        final RenderState state = mRenderState;
+        if (mState == STATE_DELAYED) {
+            if (frameTimeNanos < state.animationStartNanos) {
+                // 粒子静止，无需重绘
+                mDirtyRect.setEmpty();
+                return;
             }
+            mState = STATE_RUNNING;
+            if (mOnAnimatorLIstener != null) {
+                mOnAnimatorLIstener.onAnimatorStart();
+            }
+        }
+        if (mState != STATE_RUNNING) {
+            return;
+        }
 
-            @Override
-            public void onAnimationStart(Animator animation) {
-                if (mOnAnimatorLIstener != null) {
-                    mOnAnimatorLIstener.onAnimatorStart();
-                }
+        float fraction = (float) (frameTimeNanos - state.animationStartNanos) / state.durationNanos;
+        if (fraction >= 1f) {
+            // 结束：与 ValueAnimator 一致，最后一帧不再绘制
+            mState = STATE_IDLE;
+            mAnimatedValue = state.endValue;
+            if (mOnAnimatorLIstener != null) {
+                mOnAnimatorLIstener.onAnimatorEnd();
+            }
+            mContainer.removeAnimator(this);
+            releaseParticles();
+            releaseBudget();
+            return;
+        }
+        mAnimatedValue = state.valueAt(frameTimeNanos);
+        advanceParticles();
+    }
 
+    /**
+     * 把插值器采样为查找表，每帧查表代替 getInterpolation（如 AccelerateInterpolator 的 Math.pow）。
+     * 插值器变化时换一张新表，已发布给渲染线程的旧表不会被改写
+     */
+    private void bakeInterpolator() {
+        if (mBakedInterpolator == mInterpolator) {
+            return;
+        }
+        float[] table = new float[ParticleCurves.SIZE + 1];
+        for (int i = 0; i <= ParticleCurves.SIZE; i++) {
+            table[i] = mInterpolator.getInterpolation((float) i / ParticleCurves.SIZE);
+        }
+        mInterpolatorTable = table;
+        mBakedInterpolator = mInterpolator;
+    }
+
+    /**
+     * 根据当前动画值批量更新粒子参数（绘制前调用）
+     */
+    private void advanceParticles() {
+        final ParticleBuffer buffer = mParticles;
+        if (buffer == null || (mState != STATE_DELAYED && mState != STATE_RUNNING)) {
+            return;
+        }
+        if (mContainer.isRenderingOffThread()) {
+            // 由渲染线程按渲染帧时间推进
+            return;
+        }
+        // 先取回上一帧在工作线程上算好的结果
+        boolean swapped = mAdvancer != null && mAdvancer.finish();
+        if (mParallelAdvance && mState == STATE_RUNNING && buffer.count >= mParallelThreshold) {
+            if (mAdvancer == null) {
+                mAdvancer = new ParallelAdvancer();
+            }
+            // 本帧绘制上一帧的结果，同时在工作线程上计算本帧
+            mAdvancer.submit(buffer, mAnimatedValue, mRenderState.endValue);
+            if (swapped) {
+                updateDirtyRect(buffer);
+            } else {
+                // 流水线首帧：前台仍是 startDelay 期间的状态，无需重绘
+                mDirtyRect.setEmpty();
             }
-        });
+            return;
+        }
+        buffer.advance(mAnimatedValue, mRenderState.endValue);
+        updateDirtyRect(buffer);
     }
 
     /**
-     * 根据图片计算粒子
-     * @param bitmap      需要计算的图片
+     * 根据 advance 时累计的包围盒更新脏区：需要同时擦除上一帧并绘制本帧
      */
-    private void calculateParticles(Bitmap bitmap) {
-        
+    private void updateDirtyRect(ParticleBuffer buffer) {
+        mDirtyRect.set(mDrawnRect);
+        if (buffer.hasBounds()) {
+            float pad = mRenderState.boundsPadding();
+            mDrawnRect.set((int) Math.floor(buffer.boundsLeft - pad), (int) Math.floor(buffer.boundsTop - pad),
+                    (int) Math.ceil(buffer.boundsRight + pad), (int) Math.ceil(buffer.boundsBottom + pad));
+            mDirtyRect.union(mDrawnRect);
+        } else {
+            mDrawnRect.setEmpty();
+        }
+    }
+
+    /**
+     * 是否需要帧回调（生成中、等待、进行中或仍在抖动），未开始 / 已停止 / 已结束的动画不推进
+     */
+    boolean needsFrames() {
+        return mState != STATE_IDLE || mShakeEndNanos != 0;
+    }
+
+    /**
+     * 是否有可绘制的粒子（startDelay 阶段或动画进行中）
+     */
+    boolean hasParticles() {
+        return (mState == STATE_DELAYED || mState == STATE_RUNNING) && mParticles != null;
+    }
+
+    /**
+     * 可绘制的粒子缓冲区，没有时返回 null
+     */
+    ParticleBuffer getParticles() {
+        return hasParticles() ? mParticles : null;
+    }
+
+    /**
+     * 可绘制粒子的绘制参数，没有时返回 null（主线程，发布给渲染线程）
+     */
+    RenderState getRenderState() {
+        return hasParticles() ? mRenderState : null;
+    }
+
+    /**
+     * 将已发布的粒子缓冲区归还给容器的粒子存储池
+     */
+    private void releaseParticles() {
+        if (mAdvancer != null) {
+            // 工作线程可能仍在写入缓冲区，等待完成后再归还
+            mAdvancer.cancel();
+        }
+        mRenderState = null;
+        if (mParticles != null) {
+            mContainer.releaseParticles(mParticles);
+            mParticles = null;
+        }
+        if (mAtlas != null) {
+            // 渲染线程可能仍在用它绘制，由容器决定何时回收
+            mContainer.releaseAtlas(mAtlas);
+            mAtlas = null;
+        }
+    }
+
+    /**
+     * 粒子网格间距（原始分辨率下）
+     */
+    int getSamplingStep() {
         int diameter = mRadius * 2;
         // 限制最小间距，防止粒子过多导致 OOM 或卡死。
         // step 至少为 mRadius (即最密也只能重叠一半)
-        int step = Math.max(mRadius, diameter + mParticleGap);
-
-        int col = bitmap.getWidth() / step;
-        int row = bitmap.getHeight() / step;
+        return Math.max(1, Math.max(mRadius, diameter + mParticleGap));
+    }
 
-        // 使用 ThreadLocalRandom 代替每次 new Random，性能更好
-        Random random = ThreadLocalRandom.current();
-        
-        // 一维数组：减少内存碎片，提升 cache 命中率
-        mParticleCount = row * col;
-        mParticles = new Particle[mParticleCount];
-        int index = 0;
-
-        for (int i = 0; i < row; i++) {
-            for (int j = 0; j < col; j++) {
-                int x = j * step + mRadius;
-                int y = i * step + mRadius;
-                if (x >= bitmap.getWidth()) x = bitmap.getWidth() - 1;
-                if (y >= bitmap.getHeight()) y = bitmap.getHeight() - 1;
-                
-                int color = bitmap.getPixel(x, y);
-                Point point = new Point(mRect.left + x, mRect.top + y);
-
-                switch (mStyle){
-                    case STYLE_EXPLOSION:
-                        mParticles[index] = new ExplosionParticle(color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_DROP:
-                        mParticles[index] = new DropParticle(point,color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_FLOAT_LEFT:
-                        mParticles[index] = new FloatParticle(FloatParticle.ORIENTATION_LEFT,point,color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_FLOAT_RIGHT:
-                        mParticles[index] = new FloatParticle(FloatParticle.ORIENTATION_RIGHT,point,color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_FLOAT_TOP:
-                        mParticles[index] = new FloatParticle(FloatParticle.ORIENTATION_TOP,point,color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_FLOAT_BOTTOM:
-                        mParticles[index] = new FloatParticle(FloatParticle.ORIENTATION_BOTTOM,point,color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_RISE:
-                        mParticles[index] = new RiseParticle(RiseParticle.DIRECTION_ALL, point, color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_RISE_LEFT:
-                        mParticles[index] = new RiseParticle(RiseParticle.DIRECTION_LEFT, point, color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_RISE_RIGHT:
-                        mParticles[index] = new RiseParticle(RiseParticle.DIRECTION_RIGHT, point, color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
-                    case STYLE_RISE_TOP:
-                        mParticles[index] = new RiseParticle(RiseParticle.DIRECTION_TOP, point, color, mRadius, mRect, mEndValue, random, mHorizontalMultiple, mVerticalMultiple, mStartRandomness, mEndRandomness, mScaleMode);
-                        break;
+    /**
+     * 计算采样网格并向容器申请粒子预算。超出预算时按容器的策略处理：
+     * {@link ParticleSmasher#BUDGET_COARSEN} 按比例加大网格间距和粒子半径，
+     * {@link ParticleSmasher#BUDGET_THIN} 保持网格不变、均匀抽掉多余粒子，
+     * {@link ParticleSmasher#BUDGET_EVICT_OLDEST} 由容器先结束最早的动画腾出预算，仍不足时按加大间距处理
+     * @param srcWidth  截图区域宽度
+     * @param srcHeight 截图区域高度
+     * @return 采样网格
+     */
+    private SamplingGrid admitGrid(int srcWidth, int srcHeight) {
+        int step = getSamplingStep();
+        int radius = mRadius;
+        int requested = (srcWidth / step) * (srcHeight / step);
+        int admitted = mContainer.admitParticles(this, requested);
+        int count = requested;
+
+        if (admitted < requested) {
+            if (mContainer.getBudgetPolicy() == ParticleSmasher.BUDGET_THIN) {
+                count = admitted;
+            } else {
+                // 间距放大 sqrt(requested / admitted) 倍后数量约降为 admitted，再逐步修正取整误差
+                int coarse = admitted > 0
+                        ? (int) Math.ceil(step * Math.sqrt((double) requested / admitted))
+                        : Math.max(srcWidth, srcHeight) + 1;
+                while (admitted > 0 && (srcWidth / coarse) * (srcHeight / coarse) > admitted) {
+                    coarse++;
                 }
-                index++;
+                radius = coarseRadius(coarse);
+                step = coarse;
+                count = (srcWidth / step) * (srcHeight / step);
+            }
+        }
+        return reserveGrid(srcWidth, srcHeight, step, radius, count);
+    }
+
+    /**
+     * 粒子基础半径（未按预算放大）
+     */
+    int getParticleRadius() {
+        return mRadius;
+    }
+
+    /**
+     * 网格间距加大到 coarse 后，粒子半径按同比例放大
+     */
+    int coarseRadius(int coarse) {
+        return Math.max(1, Math.round((float) mRadius * coarse / getSamplingStep()));
+    }
+
+    /**
+     * 占用粒子预算并创建采样网格（预算已由调用方向容器申请）
+     * @param count 生成的粒子数
+     * @return 采样网格
+     */
+    SamplingGrid reserveGrid(int srcWidth, int srcHeight, int step, int radius, int count) {
+        mReservedParticles = count;
+        mContainer.reserveParticles(count);
+
+        int cellPixels = mCaptureMode == CAPTURE_GRID ? Math.min(mSupersample, step) : step;
+        return new SamplingGrid(srcWidth, srcHeight, step, radius, cellPixels, count, mAlphaThreshold);
+    }
+
+    /**
+     * 与另一个动画的网格参数（半径、间距、截图方式）是否相同，相同的才能共用一张截图
+     */
+    boolean sharesSamplingWith(SmashAnimator other) {
+        return mRadius == other.mRadius && getSamplingStep() == other.getSamplingStep()
+                && mCaptureMode == other.mCaptureMode && mSupersample == other.mSupersample;
+    }
+
+    boolean isAsyncGeneration() {
+        return mAsyncGeneration;
+    }
+
+    /**
+     * 归还本次动画占用的粒子预算
+     */
+    void releaseBudget() {
+        if (mReservedParticles > 0) {
+            mContainer.reserveParticles(-mReservedParticles);
+            mReservedParticles = 0;
+        }
+    }
+
+    /**
+     * 立即结束动画（粒子预算淘汰时由容器调用）：回调 onAnimatorEnd 并移除，View 保持隐藏
+     */
+    void finish() {
+        if (mState == STATE_IDLE) {
+            return;
+        }
+        mGeneration++;
+        mState = STATE_IDLE;
+        if (mOnAnimatorLIstener != null) {
+            mOnAnimatorLIstener.onAnimatorEnd();
+        }
+        mContainer.removeAnimator(this);
+        releaseParticles();
+        releaseBudget();
+    }
+
+    /**
+     * 本次动画占用的粒子数（生成中、等待或进行中），未开始或已结束时为 0
+     */
+    int getReservedParticles() {
+        return mReservedParticles;
+    }
+
+    /**
+     * 根据图片计算粒子，可在后台线程执行
+     * @param pending 本批次的生成参数，已过期时跳过生成
+     * @param bitmap  需要计算的图片，计算完成后归还到容器的 Bitmap 池
+     */
+    private void calculateParticles(PendingGeneration pending, Bitmap bitmap) {
+        if (pending.generation != mGeneration) {
+            mContainer.releaseBitmap(bitmap);
+            return;
+        }
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+
+        // 像素缓冲区由容器共享，同步生成与后台生成需要互斥
+        synchronized (mContainer.getPixelLock()) {
+            // 一次性读取全部像素，避免循环内每次 getPixel 都走 JNI；数组由容器复用
+            int[] pixels = mContainer.obtainPixelBuffer(width * height);
+            final long readStart = System.nanoTime();
+            bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+            pending.generateNanos = System.nanoTime() - readStart;
+            generateParticles(pending, pixels, 0, width, width, height);
+        }
+
+        // 归还到容器的 Bitmap 池，下次截图复用
+        mContainer.releaseBitmap(bitmap);
+        prepareParticles(pending);
+    }
+
+    /**
+     * 从截图像素中的一块区域生成粒子（生成线程，调用方需持有容器的像素缓冲区锁）
+     * @param pending 本批次的生成参数，已过期时跳过生成
+     * @param pixels  截图像素
+     * @param offset  区域左上角在 pixels 中的下标
+     * @param stride  截图的行宽
+     * @param width   区域宽度
+     * @param height  区域高度
+     */
+    void generateParticles(PendingGeneration pending, int[] pixels, int offset, int stride, int width, int height) {
+        if (pending.generation != mGeneration) {
+            return;
+        }
+        final long generateStart = System.nanoTime();
+        final ParticleBuffer buffer = pending.buffer;
+        // SoA 缓冲区：每个属性一个基本类型数组，不再为每个粒子创建对象
+        if (pending.procedural) {
+            buffer.resetProcedural(pending.grid.count, pending.kind, pending.direction, pending.scaleMode);
+        } else {
+            buffer.reset(pending.grid.count, pending.kind, pending.direction, pending.scaleMode);
+        }
+        final int cellPixels = pending.grid.cellPixels;
+        if (pending.samplingMode == SAMPLE_AREA) {
+            // 积分图按网格行间隔构建，与像素缓冲区一样由容器复用
+            SummedAreaTable table = mContainer.obtainAreaTable();
+            table.build(pixels, offset, stride, width, height, cellPixels);
+            ParticleGenerator.generate(buffer, table, pending.grid, pending.rect, pending.endValue, pending.random,
+                    pending.horizontalMultiple, pending.verticalMultiple, pending.startRandomness, pending.endRandomness);
+        } else {
+            ParticleGenerator.generate(buffer, pixels, offset, stride, width, height, pending.grid, pending.rect,
+                    pending.endValue, pending.random, pending.horizontalMultiple, pending.verticalMultiple,
+                    pending.startRandomness, pending.endRandomness);
+        }
+        pending.generateNanos += System.nanoTime() - generateStart;
+    }
+
+    /**
+     * 生成后的准备：烘焙曲线表，按绘制方式准备图集 / 顶点 / 调色板（生成线程，无需持有像素缓冲区锁）
+     * @param pending 本批次的生成参数，已过期时跳过
+     */
+    void prepareParticles(PendingGeneration pending) {
+        if (pending.generation != mGeneration) {
+            return;
+        }
+        final long prepareStart = System.nanoTime();
+        final ParticleBuffer buffer = pending.buffer;
+
+        // 预计算可见窗口倒数并烘焙曲线表，逐帧 advance 只做查表和乘加
+        buffer.bake(pending.endValue);
+
+        // 只改写 pending 中的绘制器，不碰动画上正在使用的实例
+        if (pending.renderMode == RENDER_ATLAS || pending.shape == SHAPE_PATH) {
+            // 放大模式下半径会超过初始值，上限按 1.5 倍预留
+            float maxRadius = buffer.maxBaseRadius() * 1.5f;
+            Path path = pending.shape == SHAPE_PATH ? pending.shapePath : null;
+            pending.atlas = new SpriteAtlas(maxRadius, SpriteAtlas.DEFAULT_LEVELS, path);
+        }
+        if (pending.renderMode == RENDER_VERTICES) {
+            if (pending.mesh == null) {
+                pending.mesh = new ParticleMesh();
+            }
+            pending.mesh.prepare(buffer);
+        } else {
+            pending.mesh = null;
+        }
+        if (pending.renderMode == RENDER_BATCHED) {
+            if (pending.batcher == null) {
+                pending.batcher = new ParticleBatcher();
             }
+            pending.batcher.prepare(buffer);
+        } else {
+            pending.batcher = null;
+        }
+        mGenerateNanos = pending.generateNanos + System.nanoTime() - prepareStart;
+    }
+
+    /**
+     * 动画样式 -> 粒子类型
+     */
+    private static int particleKind(int style) {
+        switch (style) {
+            case STYLE_DROP:
+                return ParticleBuffer.KIND_DROP;
+            case STYLE_FLOAT_LEFT:
+            case STYLE_FLOAT_RIGHT:
+            case STYLE_FLOAT_TOP:
+            case STYLE_FLOAT_BOTTOM:
+                return ParticleBuffer.KIND_FLOAT;
+            case STYLE_RISE:
+            case STYLE_RISE_LEFT:
+            case STYLE_RISE_RIGHT:
+            case STYLE_RISE_TOP:
+                return ParticleBuffer.KIND_RISE;
+            case STYLE_EXPLOSION:
+            default:
+                return ParticleBuffer.KIND_EXPLOSION;
+        }
+    }
+
+    /**
+     * 动画样式 -> Float/Rise 方向
+     */
+    private static int particleDirection(int style) {
+        switch (style) {
+            case STYLE_FLOAT_LEFT:
+                return FloatParticle.ORIENTATION_LEFT;
+            case STYLE_FLOAT_RIGHT:
+                return FloatParticle.ORIENTATION_RIGHT;
+            case STYLE_FLOAT_TOP:
+                return FloatParticle.ORIENTATION_TOP;
+            case STYLE_FLOAT_BOTTOM:
+                return FloatParticle.ORIENTATION_BOTTOM;
+            case STYLE_RISE_LEFT:
+                return RiseParticle.DIRECTION_LEFT;
+            case STYLE_RISE_RIGHT:
+                return RiseParticle.DIRECTION_RIGHT;
+            case STYLE_RISE_TOP:
+                return RiseParticle.DIRECTION_TOP;
+            case STYLE_RISE:
+            default:
+                return RiseParticle.DIRECTION_ALL;
         }
-        mBitmap.recycle();
-        mBitmap = null;
     }
 
 
@@ -504,27 +1343,9 @@ public class SmashAnimator {
         view.setTranslationY(0f);
         
         if (mEnableHideAnimation) {
-            // 启用抖动+缩放动画
-            ValueAnimator valueAnimator = new ValueAnimator();
-            valueAnimator.setDuration(startDelay + 50).setFloatValues(0f, 1f);
-            // 使View颤抖 - 使用 ThreadLocalRandom 代替每次创建 Random
-            valueAnimator.addUpdateListener(new ValueAnimator.AnimatorUpdateListener() {
-                @Override
-                public void onAnimationUpdate(ValueAnimator valueAnimator) {
-                    Random random = ThreadLocalRandom.current();
-                    view.setTranslationX((random.nextFloat() - 0.5F) * view.getWidth() * 0.05F);
-                    view.setTranslationY((random.nextFloat() - 0.5f) * view.getHeight() * 0.05f);
-                }
-            });
-            // 抖动动画结束后重置translation，防止位置漂移
-            valueAnimator.addListener(new AnimatorListenerAdapter() {
-                @Override
-                public void onAnimationEnd(Animator animation) {
-                    view.setTranslationX(0);
-                    view.setTranslationY(0);
-                }
-            });
-            valueAnimator.start();
+            // 启用抖动+缩放动画：抖动由共享帧时钟驱动（见 onFrame），持续 startDelay + 50ms
+            mShakeView = view;
+            mShakeEndNanos = System.nanoTime() + (startDelay + 50) * 1_000_000L;
             // 将View 缩放至0、透明至0
             view.animate().setDuration(260).setStartDelay(startDelay).scaleX(0).scaleY(0).alpha(0).start();
         } else {
@@ -535,70 +1356,91 @@ public class SmashAnimator {
 
 
     /**
-     *   开始逐个绘制粒子
+     *  抖动 View，结束后重置 translation，防止位置漂移
+     */
+    private void shakeView(long frameTimeNanos) {
+        View view = mShakeView;
+        if (frameTimeNanos >= mShakeEndNanos) {
+            mShakeEndNanos = 0;
+            view.setTranslationX(0);
+            view.setTranslationY(0);
+            return;
+        }
+        // 使View颤抖
+        final ParticleRandom random = mShakeRandom;
+        view.setTranslationX((random.nextFloat() - 0.5F) * view.getWidth() * 0.05F);
+        view.setTranslationY((random.nextFloat() - 0.5f) * view.getHeight() * 0.05f);
+    }
+
+    /**
+     *   开始逐个绘制粒子（完整画质）
      *   @param canvas  绘制的画板
      *   @return 是否成功
      */
     public boolean draw(Canvas canvas) {
+        return draw(canvas, QualityGovernor.QUALITY_FULL);
+    }
+
+    /**
+     *   按指定画质绘制粒子。粒子参数已在帧时钟回调中更新，这里只负责绘制
+     *   @param canvas   绘制的画板
+     *   @param quality  画质等级，见 {@link QualityGovernor#QUALITY_FULL} 等，等级累进生效
+     *   @return 是否成功
+     */
+    boolean draw(Canvas canvas, int quality) {
         // 稳定性：空指针防护
-        if (!mValueAnimator.isStarted() || mParticles == null || mParticleCount <= 0) {
+        final RenderState state = mRenderState;
+        if ((mState != STATE_DELAYED && mState != STATE_RUNNING) || state == null || state.buffer.count <= 0) {
             return false;
         }
+        state.draw(canvas, quality);
+        return true;
+    }
 
-        // 记录脏区范围
-        float minX = Float.MAX_VALUE;
-        float minY = Float.MAX_VALUE;
-        float maxX = -Float.MAX_VALUE;
-        float maxY = -Float.MAX_VALUE;
-        boolean hasVisibleParticle = false;
-
-        // 优化：缓存 animatedValue，避免每个粒子都调用一次
-        float animatedValue = (float) mValueAnimator.getAnimatedValue();
-
-        // 优化：一维数组遍历，减少循环开销和提升 cache 命中率
-        for (int i = 0; i < mParticleCount; i++) {
-            Particle p = mParticles[i];
-            // 根据动画进程，修改粒子的参数
-            p.advance(animatedValue, mEndValue);
-            if (p.alpha > 0) {
-                mPaint.setColor(p.color);
-                // 优化：使用预计算的 baseAlpha，避免每次调用 Color.alpha()
-                mPaint.setAlpha((int) (p.baseAlpha * p.alpha));
-                
-                if (mShape == SHAPE_SQUARE) {
-                    // 方形：以 (cx, cy) 为中心，radius 为半边长
-                    canvas.drawRect(
-                        p.cx - p.radius, 
-                        p.cy - p.radius, 
-                        p.cx + p.radius, 
-                        p.cy + p.radius, 
-                        mPaint
-                    );
-                } else {
-                    // 圆形（默认）
-                    canvas.drawCircle(p.cx, p.cy, p.radius, mPaint);
-                }
+    /**
+     * 最近一次 start() 截图的耗时（主线程）
+     * @return 纳秒
+     */
+    public long getCaptureNanos() {
+        return mCaptureNanos;
+    }
 
-                // 更新脏区
-                hasVisibleParticle = true;
-                if (p.cx - p.radius < minX) minX = p.cx - p.radius;
-                if (p.cx + p.radius > maxX) maxX = p.cx + p.radius;
-                if (p.cy - p.radius < minY) minY = p.cy - p.radius;
-                if (p.cy + p.radius > maxY) maxY = p.cy + p.radius;
-            }
-        }
+    /**
+     * 最近一次生成粒子的耗时，包括像素读取、粒子生成与曲线/图集准备（生成完成后在主线程读取）
+     * @return 纳秒
+     */
+    public long getGenerateNanos() {
+        return mGenerateNanos;
+    }
 
-        // 保存脏区供 ParticleSmasher 统一处理
-        if (hasVisibleParticle) {
-            mDirtyRect.set((int) minX, (int) minY, (int) maxX + 1, (int) maxY + 1);
-        } else {
-            mDirtyRect.setEmpty();
-        }
-        return true;
+    /**
+     * 当前持有的粒子数，生成中或已结束时为 0
+     * @return 粒子数
+     */
+    public int getParticleCount() {
+        ParticleBuffer buffer = getParticles();
+        return buffer != null ? buffer.count : 0;
+    }
+
+    /**
+     * 最近一次生成时因低于透明度阈值被剔除的粒子数
+     * @return 粒子数
+     */
+    public int getCulledParticleCount() {
+        return mCulledParticles;
+    }
+
+    /**
+     * 本帧可见（alpha > 0）的粒子数，在帧时钟回调中随 advance 更新；使用独立渲染线程时不更新
+     * @return 粒子数
+     */
+    public int getVisibleParticleCount() {
+        ParticleBuffer buffer = getParticles();
+        return buffer != null ? buffer.visibleCount : 0;
     }
 
     /**
-     * 获取当前帧的脏区
+     * 获取当前帧的脏区（上一帧与本帧绘制区域的并集），在帧时钟回调中随 advance 更新
      * @return 脏区矩形
      */
     public Rect getDirtyRect() {
@@ -0,0 +1,446 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Bitmap;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.view.View;
+import android.view.ViewParent;
+import android.view.animation.Interpolator;
+
+import com.tombcato.particlesmasher.particle.SamplingGrid;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <pre>
+ *     desc   : 批量粉碎多个 View（如列表、网格中的批量删除）
+ *              start() 时只对这些 View 的共同父容器截图一次，按各 View 的可见区域从同一张截图中裁取，
+ *              并在一次后台任务中读取像素、依次生成全部粒子，截图开销约等于粉碎一个 View。
+ *              参数对全部 View 生效；粒子预算按整批申请，BUDGET_COARSEN 时整批使用相同的网格间距。
+ *              截图来自父容器，View 的透明区域会带上其下方的背景。
+ *     version: 1.0
+ * </pre>
+ */
+
+public class SmashBatch {
+
+    private final ParticleSmasher mContainer;
+    private final List<SmashAnimator> mAnimators = new ArrayList<>();
+
+    SmashBatch(ParticleSmasher container) {
+        mContainer = container;
+    }
+
+    void add(SmashAnimator animator) {
+        mAnimators.add(animator);
+    }
+
+    /**
+     * 获取各 View 的动画，可单独设置回调等。单独修改了半径、间距或截图方式的 View 会另外单独截图
+     * @return 按传入顺序排列的动画（只读）
+     */
+    public List<SmashAnimator> getAnimators() {
+        return Collections.unmodifiableList(mAnimators);
+    }
+
+    /** @see SmashAnimator#setStyle(int) */
+    public SmashBatch setStyle(int style) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setStyle(style);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setDuration(long) */
+    public SmashBatch setDuration(long duration) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setDuration(duration);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setStartDelay(long) */
+    public SmashBatch setStartDelay(long startDelay) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setStartDelay(startDelay);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setHorizontalMultiple(float) */
+    public SmashBatch setHorizontalMultiple(float horizontalMultiple) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setHorizontalMultiple(horizontalMultiple);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setVerticalMultiple(float) */
+    public SmashBatch setVerticalMultiple(float verticalMultiple) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setVerticalMultiple(verticalMultiple);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setParticleRadius(int) */
+    public SmashBatch setParticleRadius(int radius) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setParticleRadius(radius);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setParticleGap(int) */
+    public SmashBatch setParticleGap(int gap) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setParticleGap(gap);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setShape(int) */
+    public SmashBatch setShape(int shape) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setShape(shape);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setShapePath(Path) */
+    public SmashBatch setShapePath(Path path) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setShapePath(path);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setCaptureMode(int) */
+    public SmashBatch setCaptureMode(int captureMode) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setCaptureMode(captureMode);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setSupersample(int) */
+    public SmashBatch setSupersample(int supersample) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setSupersample(supersample);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setSamplingMode(int) */
+    public SmashBatch setSamplingMode(int samplingMode) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setSamplingMode(samplingMode);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setAlphaThreshold(int) */
+    public SmashBatch setAlphaThreshold(int alpha) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setAlphaThreshold(alpha);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setProceduralParticles(boolean) */
+    public SmashBatch setProceduralParticles(boolean procedural) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setProceduralParticles(procedural);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setRenderMode(int) */
+    public SmashBatch setRenderMode(int renderMode) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setRenderMode(renderMode);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setAsyncGeneration(boolean) */
+    public SmashBatch setAsyncGeneration(boolean async) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setAsyncGeneration(async);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setParallelAdvance(boolean) */
+    public SmashBatch setParallelAdvance(boolean parallel) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setParallelAdvance(parallel);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setHideAnimation(boolean) */
+    public SmashBatch setHideAnimation(boolean enable) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setHideAnimation(enable);
+        }
+        return this;
+    }
+
+    /**
+     *   设置随机数种子，第 i 个 View 使用 seed + i，各 View 的粒子互不相同且可复现
+     *   @see SmashAnimator#setSeed(long)
+     */
+    public SmashBatch setSeed(long seed) {
+        for (int i = 0, size = mAnimators.size(); i < size; i++) {
+            mAnimators.get(i).setSeed(seed + i);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setInterpolator(Interpolator) */
+    public SmashBatch setInterpolator(Interpolator interpolator) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setInterpolator(interpolator);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setStartRandomness(float) */
+    public SmashBatch setStartRandomness(float randomness) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setStartRandomness(randomness);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setEndRandomness(float) */
+    public SmashBatch setEndRandomness(float randomness) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setEndRandomness(randomness);
+        }
+        return this;
+    }
+
+    /** @see SmashAnimator#setScaleMode(int) */
+    public SmashBatch setScaleMode(int scaleMode) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.setScaleMode(scaleMode);
+        }
+        return this;
+    }
+
+    /**
+     *   添加回调，每个 View 的动画开始、结束时各回调一次
+     *   @see SmashAnimator#addAnimatorListener(SmashAnimator.OnAnimatorListener)
+     */
+    public SmashBatch addAnimatorListener(SmashAnimator.OnAnimatorListener listener) {
+        for (SmashAnimator animator : mAnimators) {
+            animator.addAnimatorListener(listener);
+        }
+        return this;
+    }
+
+    /**
+     *   开始全部 View 的动画
+     */
+    public void start() {
+        // 稳定性：View 未完成布局时延迟执行
+        for (SmashAnimator animator : mAnimators) {
+            View view = animator.getAnimatorView();
+            if (view.getWidth() <= 0 || view.getHeight() <= 0) {
+                view.post(this::start);
+                return;
+            }
+        }
+
+        // 收集可见的 View；网格参数与第一个不同的单独截图
+        final int[] location = new int[2];
+        final List<SmashAnimator> members = new ArrayList<>(mAnimators.size());
+        final List<Rect> rects = new ArrayList<>(mAnimators.size());
+        final Rect union = new Rect();
+        for (SmashAnimator animator : mAnimators) {
+            Rect visibleRect = new Rect();
+            if (!animator.prepareCapture(location, visibleRect)) {
+                continue;
+            }
+            if (!members.isEmpty() && !animator.sharesSamplingWith(members.get(0))) {
+                animator.start();
+                continue;
+            }
+            members.add(animator);
+            rects.add(visibleRect);
+            union.union(visibleRect);
+        }
+        if (members.isEmpty()) {
+            return;
+        }
+        View root = members.size() > 1 ? commonAncestor(members) : null;
+        if (root == null) {
+            // 只有一个 View，或不在同一个窗口中
+            for (SmashAnimator animator : members) {
+                animator.start();
+            }
+            return;
+        }
+
+        final int size = members.size();
+        final SamplingGrid[] grids = admitGrids(members, rects);
+        final float scale = (float) grids[0].cellPixels / grids[0].step;
+
+        // 对共同父容器截图一次，区域为全部 View 可见区域的并集（相对父容器左上角，含滚动偏移）
+        root.getLocationOnScreen(location);
+        Rect cropRect = new Rect(union);
+        cropRect.offset(root.getScrollX() - location[0], root.getScrollY() - location[1]);
+        final long captureStart = System.nanoTime();
+        final Bitmap bitmap = mContainer.createBitmapFromView(root, cropRect, scale);
+        final long captureNanos = System.nanoTime() - captureStart;
+        if (bitmap == null) {
+            for (SmashAnimator animator : members) {
+                animator.releaseBudget();
+            }
+            return;
+        }
+
+        // 各 View 在截图中的区域
+        final int bitmapWidth = bitmap.getWidth();
+        final int bitmapHeight = bitmap.getHeight();
+        final int[] offsets = new int[size];
+        final int[] widths = new int[size];
+        final int[] heights = new int[size];
+        final SmashAnimator.PendingGeneration[] pendings = new SmashAnimator.PendingGeneration[size];
+        for (int i = 0; i < size; i++) {
+            Rect rect = rects.get(i);
+            int left = Math.min(bitmapWidth - 1, (int) ((rect.left - union.left) * scale));
+            int top = Math.min(bitmapHeight - 1, (int) ((rect.top - union.top) * scale));
+            offsets[i] = top * bitmapWidth + left;
+            widths[i] = Math.max(1, Math.min(bitmapWidth - left, (int) Math.ceil(rect.width() * scale)));
+            heights[i] = Math.max(1, Math.min(bitmapHeight - top, (int) Math.ceil(rect.height() * scale)));
+
+            SmashAnimator animator = members.get(i);
+            animator.setCaptureNanos(captureNanos / size);
+            pendings[i] = animator.beginGeneration(grids[i]);
+        }
+
+        if (members.get(0).isAsyncGeneration()) {
+            ParticleSmasher.generateExecutor().execute(() -> {
+                generate(bitmap, pendings, offsets, widths, heights);
+                ParticleSmasher.mainHandler().post(() -> dispatchReady(pendings));
+            });
+        } else {
+            generate(bitmap, pendings, offsets, widths, heights);
+            dispatchReady(pendings);
+        }
+    }
+
+    /**
+     * 按整批的粒子数申请预算，再为每个 View 占用并创建网格
+     */
+    private SamplingGrid[] admitGrids(List<SmashAnimator> members, List<Rect> rects) {
+        final int size = members.size();
+        final SmashAnimator leader = members.get(0);
+        int step = leader.getSamplingStep();
+        int radius = leader.getParticleRadius();
+        int requested = countCells(rects, step);
+        int admitted = mContainer.admitParticles(leader, requested);
+        boolean thin = false;
+
+        if (admitted < requested) {
+            if (mContainer.getBudgetPolicy() == ParticleSmasher.BUDGET_THIN) {
+                thin = true;
+            } else {
+                // 与单个 View 相同：间距放大 sqrt(requested / admitted) 倍，再逐步修正取整误差
+                int coarse = admitted > 0
+                        ? (int) Math.ceil(step * Math.sqrt((double) requested / admitted))
+                        : maxSide(rects) + 1;
+                while (admitted > 0 && countCells(rects, coarse) > admitted) {
+                    coarse++;
+                }
+                radius = leader.coarseRadius(coarse);
+                step = coarse;
+            }
+        }
+
+        SamplingGrid[] grids = new SamplingGrid[size];
+        for (int i = 0; i < size; i++) {
+            Rect rect = rects.get(i);
+            int cells = (rect.width() / step) * (rect.height() / step);
+            // BUDGET_THIN：按各 View 的网格数比例分配
+            int count = thin ? (int) ((long) cells * admitted / requested) : cells;
+            grids[i] = members.get(i).reserveGrid(rect.width(), rect.height(), step, radius, count);
+        }
+        return grids;
+    }
+
+    private static int maxSide(List<Rect> rects) {
+        int side = 0;
+        for (int i = 0, size = rects.size(); i < size; i++) {
+            Rect rect = rects.get(i);
+            side = Math.max(side, Math.max(rect.width(), rect.height()));
+        }
+        return side;
+    }
+
+    private static int countCells(List<Rect> rects, int step) {
+        int cells = 0;
+        for (int i = 0, size = rects.size(); i < size; i++) {
+            Rect rect = rects.get(i);
+            cells += (rect.width() / step) * (rect.height() / step);
+        }
+        return cells;
+    }
+
+    /**
+     * 一次读取截图像素，依次生成各 View 的粒子（生成线程）
+     */
+    private void generate(Bitmap bitmap, SmashAnimator.PendingGeneration[] pendings,
+                          int[] offsets, int[] widths, int[] heights) {
+        final int width = bitmap.getWidth();
+        final int height = bitmap.getHeight();
+        // 像素缓冲区由容器共享，同步生成与后台生成需要互斥
+        synchronized (mContainer.getPixelLock()) {
+            int[] pixels = mContainer.obtainPixelBuffer(width * height);
+            bitmap.getPixels(pixels, 0, width, 0, 0, width, height);
+            for (int i = 0; i < pendings.length; i++) {
+                SmashAnimator.PendingGeneration pending = pendings[i];
+                pending.animator.generateParticles(pending, pixels, offsets[i], width, widths[i], heights[i]);
+            }
+        }
+        mContainer.releaseBitmap(bitmap);
+        for (SmashAnimator.PendingGeneration pending : pendings) {
+            pending.animator.prepareParticles(pending);
+        }
+    }
+
+    private static void dispatchReady(SmashAnimator.PendingGeneration[] pendings) {
+        for (SmashAnimator.PendingGeneration pending : pendings) {
+            pending.animator.onParticlesReady(pending);
+        }
+    }
+
+    /**
+     * 全部 View 最近的共同父容器
+     * @return 不在同一个 View 树中时为 null
+     */
+    private static View commonAncestor(List<SmashAnimator> members) {
+        ViewParent candidate = members.get(0).getAnimatorView().getParent();
+        for (int i = 1, size = members.size(); i < size && candidate != null; i++) {
+            View view = members.get(i).getAnimatorView();
+            while (candidate != null && !isDescendant(view, candidate)) {
+                candidate = candidate.getParent();
+            }
+        }
+        return candidate instanceof View ? (View) candidate : null;
+    }
+
+    private static boolean isDescendant(View view, ViewParent ancestor) {
+        for (ViewParent parent = view.getParent(); parent != null; parent = parent.getParent()) {
+            if (parent == ancestor) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,202 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+/**
+ * <pre>
+ *     desc   : View 截图 Bitmap 池
+ *              按分配字节数的 2 次幂分桶，复用时 reconfigure 到目标尺寸并清空内容；
+ *              总字节数超过上限时按最近最少使用（LRU）淘汰。线程安全。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class SnapshotBitmapPool {
+
+    /** 默认容量上限：8MB */
+    public static final long DEFAULT_MAX_BYTES = 8L * 1024 * 1024;
+
+    /** 新建 Bitmap 时宽高向上取整的粒度，方便不同尺寸之间复用 */
+    private static final int SIZE_ALIGN = 32;
+
+    private static final Bitmap.Config CONFIG = Bitmap.Config.ARGB_8888;
+    private static final int BYTES_PER_PIXEL = 4;
+
+    /** 桶下标（ceil(log2(字节数))） -> 空闲 Bitmap */
+    private final Map<Integer, ArrayDeque<Bitmap>> mBuckets = new HashMap<>();
+
+    /** 空闲 Bitmap，按归还顺序排列，队首最久未使用 */
+    private final LinkedHashSet<Bitmap> mLru = new LinkedHashSet<>();
+
+    private long mMaxBytes;
+    private long mCurrentBytes;
+
+    private int mHitCount;
+    private int mMissCount;
+    private int mEvictionCount;
+
+    public SnapshotBitmapPool() {
+        this(DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes 池中空闲 Bitmap 的总字节数上限，0 表示不缓存
+     */
+    public SnapshotBitmapPool(long maxBytes) {
+        mMaxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * 获取一个指定尺寸、内容透明的 ARGB_8888 Bitmap，优先复用池中空闲对象
+     * @param width  宽度
+     * @param height 高度
+     * @return Bitmap，用完后通过 {@link #release(Bitmap)} 归还
+     */
+    public synchronized Bitmap acquire(int width, int height) {
+        long required = (long) width * height * BYTES_PER_PIXEL;
+        int bucket = bucketOf(required);
+        // 同一个桶里的 Bitmap 可能略小，再尝试下一个桶（必然足够大）
+        Bitmap bitmap = take(bucket, required);
+        if (bitmap == null) {
+            bitmap = take(bucket + 1, required);
+        }
+        if (bitmap != null) {
+            bitmap.reconfigure(width, height, CONFIG);
+            bitmap.eraseColor(Color.TRANSPARENT);
+            mHitCount++;
+            return bitmap;
+        }
+
+        mMissCount++;
+        int allocWidth = align(width);
+        int allocHeight = align(height);
+        bitmap = Bitmap.createBitmap(allocWidth, allocHeight, CONFIG);
+        if (allocWidth != width || allocHeight != height) {
+            bitmap.reconfigure(width, height, CONFIG);
+        }
+        return bitmap;
+    }
+
+    /**
+     * 归还 Bitmap，超出容量上限时淘汰最久未使用的对象
+     * @param bitmap 通过 {@link #acquire(int, int)} 获取的 Bitmap
+     */
+    public synchronized void release(Bitmap bitmap) {
+        if (bitmap == null || bitmap.isRecycled() || !bitmap.isMutable() || mLru.contains(bitmap)) {
+            return;
+        }
+        int bytes = bitmap.getAllocationByteCount();
+        if (bytes > mMaxBytes) {
+            bitmap.recycle();
+            mEvictionCount++;
+            return;
+        }
+        ArrayDeque<Bitmap> queue = mBuckets.get(bucketOf(bytes));
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            mBuckets.put(bucketOf(bytes), queue);
+        }
+        queue.addLast(bitmap);
+        mLru.add(bitmap);
+        mCurrentBytes += bytes;
+        trimToSize(mMaxBytes);
+    }
+
+    /**
+     * 设置容量上限，立即淘汰超出部分
+     * @param maxBytes 空闲 Bitmap 的总字节数上限
+     */
+    public synchronized void setMaxSize(long maxBytes) {
+        mMaxBytes = Math.max(0, maxBytes);
+        trimToSize(mMaxBytes);
+    }
+
+    public synchronized long getMaxSize() {
+        return mMaxBytes;
+    }
+
+    /**
+     * 当前空闲 Bitmap 的总字节数
+     */
+    public synchronized long getSize() {
+        return mCurrentBytes;
+    }
+
+    /** 命中次数 */
+    public synchronized int getHitCount() {
+        return mHitCount;
+    }
+
+    /** 未命中（新建 Bitmap）次数 */
+    public synchronized int getMissCount() {
+        return mMissCount;
+    }
+
+    /** 淘汰次数 */
+    public synchronized int getEvictionCount() {
+        return mEvictionCount;
+    }
+
+    /**
+     * 回收所有空闲 Bitmap，统计数据保留
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "SnapshotBitmapPool{size=" + mCurrentBytes + "/" + mMaxBytes
+                + ", hit=" + mHitCount + ", miss=" + mMissCount + ", evict=" + mEvictionCount + "}";
+    }
+
+    // ==================== 内部方法 ====================
+
+    private Bitmap take(int bucket, long required) {
+        ArrayDeque<Bitmap> queue = mBuckets.get(bucket);
+        if (queue == null) {
+            return null;
+        }
+        for (Iterator<Bitmap> it = queue.iterator(); it.hasNext(); ) {
+            Bitmap bitmap = it.next();
+            if (bitmap.getAllocationByteCount() >= required) {
+                it.remove();
+                mLru.remove(bitmap);
+                mCurrentBytes -= bitmap.getAllocationByteCount();
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    private void trimToSize(long maxBytes) {
+        Iterator<Bitmap> it = mLru.iterator();
+        while (mCurrentBytes > maxBytes && it.hasNext()) {
+            Bitmap eldest = it.next();
+            it.remove();
+            int bytes = eldest.getAllocationByteCount();
+            ArrayDeque<Bitmap> queue = mBuckets.get(bucketOf(bytes));
+            if (queue != null) {
+                queue.remove(eldest);
+            }
+            mCurrentBytes -= bytes;
+            eldest.recycle();
+            mEvictionCount++;
+        }
+    }
+
+    private static int bucketOf(long bytes) {
+        return bytes <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(bytes - 1);
+    }
+
+    private static int align(int size) {
+        return (size + SIZE_ALIGN - 1) / SIZE_ALIGN * SIZE_ALIGN;
+    }
+}
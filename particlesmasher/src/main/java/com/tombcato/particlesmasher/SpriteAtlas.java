@@ -0,0 +1,138 @@
+package com.tombcato.particlesmasher;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+
+/**
+ * <pre>
+ *     desc   : 粒子形状图集
+ *              把圆形、方形和自定义 Path 形状按若干半径级预先光栅化到一张 ALPHA_8 图集中，
+ *              绘制时用 drawBitmap 从图集取对应的格子，画笔颜色即粒子颜色（ALPHA_8 位图按画笔着色）。
+ *              自定义形状每帧的开销与圆形相同，不再逐粒子 drawPath。生成后只读，可跨线程使用。
+ *     version: 1.0
+ * </pre>
+ */
+
+public final class SpriteAtlas {
+
+    /** 图集行：圆形 */
+    public static final int ROW_CIRCLE = 0;
+    /** 图集行：方形 */
+    public static final int ROW_SQUARE = 1;
+    /** 图集行：自定义形状（构造时传入 Path 时存在） */
+    public static final int ROW_PATH = 2;
+
+    /** 默认半径级数 */
+    public static final int DEFAULT_LEVELS = 16;
+
+    /** 每个格子四周留出的像素，容纳抗锯齿边缘并避免采样到相邻格子 */
+    private static final int CELL_MARGIN = 1;
+
+    private final Bitmap mBitmap;
+    private final Path mPath;
+    private final float mMaxRadius;
+    private final int mLevels;
+    private final float mStep;              // 每级半径
+    private final int[] mCellLeft;          // 各级格子在行内的 x
+    private final int[] mCellSize;          // 各级格子边长
+    private final int mRowHeight;
+
+    /**
+     * @param maxRadius 需要覆盖的最大半径，超出时按最大一级缩放
+     * @param levels    半径级数
+     * @param path      自定义形状，以 (0, 0) 为中心、半径 1 为范围（即位于 [-1, 1] 方框内），可为 null
+     */
+    public SpriteAtlas(float maxRadius, int levels, Path path) {
+        mMaxRadius = Math.max(1, maxRadius);
+        mLevels = Math.max(1, levels);
+        mPath = path;
+        mStep = mMaxRadius / mLevels;
+
+        mCellLeft = new int[mLevels];
+        mCellSize = new int[mLevels];
+        int width = 0;
+        for (int k = 0; k < mLevels; k++) {
+            int size = (int) Math.ceil(2 * levelRadius(k)) + CELL_MARGIN * 2;
+            mCellLeft[k] = width;
+            mCellSize[k] = size;
+            width += size;
+        }
+        mRowHeight = mCellSize[mLevels - 1];
+        int rows = path != null ? ROW_PATH + 1 : ROW_PATH;
+
+        mBitmap = Bitmap.createBitmap(width, mRowHeight * rows, Bitmap.Config.ALPHA_8);
+        rasterize();
+    }
+
+    /**
+     * 图集位图（ALPHA_8），绘制时画笔颜色即粒子颜色
+     */
+    public Bitmap getBitmap() {
+        return mBitmap;
+    }
+
+    /**
+     * 是否可以直接用于给定的最大半径与形状
+     */
+    public boolean covers(float maxRadius, Path path) {
+        return maxRadius <= mMaxRadius && path == mPath && !mBitmap.isRecycled();
+    }
+
+    /**
+     * 查找半径对应的格子
+     * @param row    图集行，{@link #ROW_CIRCLE} 等
+     * @param radius 粒子半径
+     * @param outSrc 输出格子在图集中的位置
+     * @return 目标矩形的半边长：格子按半径等比缩放后的大小（含边距）
+     */
+    public float getSprite(int row, float radius, Rect outSrc) {
+        int level = (int) Math.ceil(radius / mStep) - 1;
+        if (level < 0) level = 0;
+        if (level >= mLevels) level = mLevels - 1;
+        int size = mCellSize[level];
+        int left = mCellLeft[level];
+        int top = row * mRowHeight;
+        outSrc.set(left, top, left + size, top + size);
+        return size * 0.5f * radius / levelRadius(level);
+    }
+
+    /**
+     * 回收图集位图
+     */
+    public void recycle() {
+        mBitmap.recycle();
+    }
+
+    // ==================== 内部方法 ====================
+
+    private float levelRadius(int level) {
+        return (level + 1) * mStep;
+    }
+
+    private void rasterize() {
+        Canvas canvas = new Canvas(mBitmap);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        paint.setColor(Color.WHITE);
+        for (int k = 0; k < mLevels; k++) {
+            float r = levelRadius(k);
+            float cx = mCellLeft[k] + mCellSize[k] * 0.5f;
+            float cy = mCellSize[k] * 0.5f;
+
+            canvas.drawCircle(cx, cy + ROW_CIRCLE * mRowHeight, r, paint);
+            float squareCy = cy + ROW_SQUARE * mRowHeight;
+            canvas.drawRect(cx - r, squareCy - r, cx + r, squareCy + r, paint);
+            if (mPath != null) {
+                int save = canvas.save();
+                canvas.translate(cx, cy + ROW_PATH * mRowHeight);
+                canvas.scale(r, r);
+                canvas.drawPath(mPath, paint);
+                canvas.restoreToCount(save);
+            }
+        }
+        canvas.setBitmap(null);
+    }
+}
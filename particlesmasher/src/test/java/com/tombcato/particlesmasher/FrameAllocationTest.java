@@ -0,0 +1,193 @@
+package com.tombcato.particlesmasher;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.view.View;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+import org.robolectric.annotation.Config;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 逐帧路径零分配：帧时钟回调（推进、脏区、指标与回调分发）与 onDraw 在预热后不得分配任何对象。
+ * 绘制到空实现的 Canvas，只统计库自身的分配
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 34)
+public class FrameAllocationTest {
+
+    private static final long FRAME_NANOS = 16_666_667L;
+    private static final int WARMUP_FRAMES = 300;
+    private static final int FRAMES = 200;
+
+    private FrameLayout mContainer;
+    private ParticleSmasher mSmasher;
+    private final Canvas mCanvas = new NoOpCanvas();
+    private long mFrameTimeNanos;
+
+    @Before
+    public void setUp() {
+        Context context = RuntimeEnvironment.getApplication();
+        // 容器不挂到窗口上，invalidate 不进入 ViewRootImpl
+        mContainer = new FrameLayout(context);
+        mSmasher = new ParticleSmasher(mContainer);
+    }
+
+    @Test
+    public void directRender_doesNotAllocate() {
+        assertFrameLoopDoesNotAllocate(SmashAnimator.RENDER_DIRECT, SmashAnimator.STYLE_EXPLOSION, SmashAnimator.STYLE_DROP);
+    }
+
+    @Test
+    public void batchedRender_doesNotAllocate() {
+        assertFrameLoopDoesNotAllocate(SmashAnimator.RENDER_BATCHED, SmashAnimator.STYLE_FLOAT_LEFT, SmashAnimator.STYLE_RISE);
+    }
+
+    @Test
+    public void atlasRender_doesNotAllocate() {
+        assertFrameLoopDoesNotAllocate(SmashAnimator.RENDER_ATLAS, SmashAnimator.STYLE_RISE_TOP, SmashAnimator.STYLE_EXPLOSION);
+    }
+
+    @Test
+    public void vertexRender_doesNotAllocate() {
+        assertFrameLoopDoesNotAllocate(SmashAnimator.RENDER_VERTICES, SmashAnimator.STYLE_DROP, SmashAnimator.STYLE_FLOAT_BOTTOM);
+    }
+
+    @Test
+    public void metricsAndAdaptiveQuality_doNotAllocate() {
+        final long[] frames = new long[1];
+        mSmasher.setAdaptiveQuality(true);
+        mSmasher.setOnQualityChangeListener((level, averageFrameNanos) -> { });
+        mSmasher.setOnMetricsListener(new ParticleSmasher.OnMetricsListener() {
+            @Override
+            public void onFrameMetrics(FrameMetrics metrics) {
+                frames[0]++;
+            }
+
+            @Override
+            public void onStartMetrics(SmashAnimator animator, long captureNanos, long generateNanos, int particleCount) {
+            }
+        });
+        assertFrameLoopDoesNotAllocate(SmashAnimator.RENDER_DIRECT, SmashAnimator.STYLE_EXPLOSION, SmashAnimator.STYLE_FLOAT_TOP);
+        assertTrue(frames[0] >= WARMUP_FRAMES + FRAMES);
+    }
+
+    // ==================== 工具方法 ====================
+
+    private void assertFrameLoopDoesNotAllocate(int renderMode, int... styles) {
+        View[] views = new View[styles.length];
+        for (int i = 0; i < styles.length; i++) {
+            views[i] = new View(mContainer.getContext());
+            views[i].setBackgroundColor(i % 2 == 0 ? Color.RED : Color.BLUE);
+            FrameLayout.LayoutParams lp = new FrameLayout.LayoutParams(120, 80);
+            lp.leftMargin = 20 + i * 150;
+            lp.topMargin = 40;
+            mContainer.addView(views[i], lp);
+        }
+        layout();
+        for (int i = 0; i < styles.length; i++) {
+            mSmasher.with(views[i])
+                    .setStyle(styles[i])
+                    .setRenderMode(renderMode)
+                    .setDuration(60_000)
+                    .setStartDelay(0)
+                    .setHideAnimation(false)
+                    .setAsyncGeneration(false)
+                    .setSeed(i)
+                    .start();
+        }
+        mFrameTimeNanos = System.nanoTime() + FRAME_NANOS;
+
+        long allocated = allocatedBytes();
+        // 测量期间动画一直在运行
+        for (View view : views) {
+            assertTrue(mSmasher.isAnimating(view));
+        }
+        assertTrue(mSmasher.getLiveParticleCount() > 0);
+        assertEquals("render mode " + renderMode, 0, allocated);
+    }
+
+    private void layout() {
+        int width = View.MeasureSpec.makeMeasureSpec(800, View.MeasureSpec.EXACTLY);
+        int height = View.MeasureSpec.makeMeasureSpec(600, View.MeasureSpec.EXACTLY);
+        mContainer.measure(width, height);
+        mContainer.layout(0, 0, 800, 600);
+    }
+
+    private void frame() {
+        mSmasher.onFrame(mFrameTimeNanos);
+        mSmasher.onDraw(mCanvas);
+        mFrameTimeNanos += FRAME_NANOS;
+    }
+
+    /**
+     * 预热后运行 {@link #FRAMES} 帧，返回期间当前线程分配的字节数
+     */
+    private long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        for (int i = 0; i < WARMUP_FRAMES; i++) {
+            frame();
+        }
+        // 测量本身的开销（通常为 0）
+        long calibration = threads.getCurrentThreadAllocatedBytes();
+        calibration = threads.getCurrentThreadAllocatedBytes() - calibration;
+
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < FRAMES; i++) {
+            frame();
+        }
+        return threads.getCurrentThreadAllocatedBytes() - before - calibration;
+    }
+
+    /**
+     * 丢弃所有绘制的 Canvas
+     */
+    private static final class NoOpCanvas extends Canvas {
+        @Override
+        public void drawCircle(float cx, float cy, float radius, Paint paint) {
+        }
+
+        @Override
+        public void drawRect(float left, float top, float right, float bottom, Paint paint) {
+        }
+
+        @Override
+        public void drawPoints(float[] pts, int offset, int count, Paint paint) {
+        }
+
+        @Override
+        public void drawBitmap(Bitmap bitmap, Rect src, RectF dst, Paint paint) {
+        }
+
+        @Override
+        public void drawVertices(VertexMode mode, int vertexCount, float[] verts, int vertOffset,
+                                 float[] texs, int texOffset, int[] colors, int colorOffset,
+                                 short[] indices, int indexOffset, int indexCount, Paint paint) {
+        }
+
+        @Override
+        public boolean isHardwareAccelerated() {
+            return false;
+        }
+    }
+}